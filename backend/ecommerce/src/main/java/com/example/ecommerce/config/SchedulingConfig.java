@@ -0,0 +1,10 @@
+package com.example.ecommerce.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Enables @Scheduled background jobs (checkout queue dispatcher, ...)
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
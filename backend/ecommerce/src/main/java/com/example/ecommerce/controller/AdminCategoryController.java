@@ -0,0 +1,45 @@
+package com.example.ecommerce.controller;
+
+import com.example.ecommerce.dto.CategoryRequest;
+import com.example.ecommerce.entity.Category;
+import com.example.ecommerce.service.CategoryService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.NoSuchElementException;
+
+@RestController
+@RequestMapping("/api/admin/categories")
+public class AdminCategoryController {
+
+    private final CategoryService categoryService;
+
+    public AdminCategoryController(CategoryService categoryService) {
+        this.categoryService = categoryService;
+    }
+
+    //  Create a category, optionally under a parent (Admin only)
+    @PostMapping
+    public ResponseEntity<?> createCategory(@RequestBody CategoryRequest request) {
+        try {
+            Category category = categoryService.createCategory(request.getName(), request.getParentId());
+            return ResponseEntity.ok(category);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    //  Delete an empty leaf category (Admin only)
+    @DeleteMapping("/{id}")
+    public ResponseEntity<String> deleteCategory(@PathVariable int id) {
+        try {
+            categoryService.deleteCategory(id);
+            return ResponseEntity.ok("Category deleted successfully.");
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.status(404).body(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
+    }
+}
@@ -1,12 +1,32 @@
 package com.example.ecommerce.controller;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
+import com.example.ecommerce.dto.CheckoutQueueStatsDTO;
 import com.example.ecommerce.dto.OrderDTO;
+import com.example.ecommerce.dto.OrderPageDTO;
+import com.example.ecommerce.dto.OrderRollupDTO;
 import com.example.ecommerce.dto.OrderStatsDTO;
 import com.example.ecommerce.dto.OrderStatusUpdateRequest;
+import com.example.ecommerce.service.CheckoutQueueService;
+import com.example.ecommerce.service.DataFormat;
+import com.example.ecommerce.service.ExportLimiter;
+import com.example.ecommerce.service.OrderExportService;
+import com.example.ecommerce.service.OrderRollupService;
 import com.example.ecommerce.service.OrderService;
 
 @RestController
@@ -14,23 +34,83 @@ import com.example.ecommerce.service.OrderService;
 public class AdminOrderController {
 
     private final OrderService orderService;
+    private final CheckoutQueueService checkoutQueueService;
+    private final OrderRollupService orderRollupService;
+    private final OrderExportService orderExportService;
+    private final ExportLimiter exportLimiter;
 
-    public AdminOrderController(OrderService orderService) {
+    public AdminOrderController(OrderService orderService, CheckoutQueueService checkoutQueueService,
+                                OrderRollupService orderRollupService, OrderExportService orderExportService,
+                                ExportLimiter exportLimiter) {
         this.orderService = orderService;
+        this.checkoutQueueService = checkoutQueueService;
+        this.orderRollupService = orderRollupService;
+        this.orderExportService = orderExportService;
+        this.exportLimiter = exportLimiter;
     }
 
-    //  Get all orders (Admin only)
+    //  Page through orders, newest first, with optional filters (Admin only)
+    //  ?status=PAID&from=2025-01-01&to=2025-01-31&userId=7&minTotal=100&maxTotal=5000&size=20&cursor=<nextCursor>
+    //  from/to are inclusive calendar days (server time zone)
     @GetMapping
-    public ResponseEntity<List<OrderDTO>> getAllOrders() {
-        List<OrderDTO> orders = orderService.getAllOrdersForAdmin();
-        return ResponseEntity.ok(orders);
+    public ResponseEntity<?> getOrders(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) Double minTotal,
+            @RequestParam(required = false) Double maxTotal,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        try {
+            OrderPageDTO page = orderService.getAdminOrderPage(status, startOfDay(from),
+                    to == null ? null : startOfDay(to.plusDays(1)), userId, minTotal, maxTotal, cursor, size);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    private static Date startOfDay(LocalDate day) {
+        return day == null ? null : Date.from(day.atStartOfDay(ZoneId.systemDefault()).toInstant());
     }
 
-    //  Get orders by status (Admin only)
-    @GetMapping("/status/{status}")
-    public ResponseEntity<List<OrderDTO>> getOrdersByStatus(@PathVariable String status) {
-        List<OrderDTO> orders = orderService.getOrdersByStatus(status);
-        return ResponseEntity.ok(orders);
+    //  Export order lines placed between two days, one row per item (Admin only)
+    //  ?from=2025-01-01&to=2025-01-31&format=csv|ndjson (default csv)&gzip=true
+    //  from/to are inclusive calendar days (server time zone). Streamed from a DB cursor.
+    //  429 while the maximum number of exports (catalog.export.max-concurrent) is already running.
+    @GetMapping("/export")
+    // (Declared as StreamingResponseBody so Spring MVC streams it asynchronously, errors included)
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            WebRequest request
+    ) {
+        DataFormat resolved;
+        try {
+            resolved = DataFormat.resolve(format, null);
+            if (to.isBefore(from)) {
+                throw new IllegalArgumentException("from must not be after to");
+            }
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(out -> out.write(e.getMessage().getBytes(StandardCharsets.UTF_8)));
+        }
+        String filename = "orders-" + from + "-to-" + to + "." + resolved.getExtension() + (gzip ? ".gz" : "");
+        StreamingResponseBody body;
+        try {
+            body = exportLimiter.limit(request, orderExportService.exportOrderLines(startOfDay(from),
+                    startOfDay(to.plusDays(1)), resolved, gzip));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .body(out -> out.write(e.getMessage().getBytes(StandardCharsets.UTF_8)));
+        }
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .header(HttpHeaders.CONTENT_TYPE, gzip ? "application/gzip" : resolved.getMediaType() + ";charset=UTF-8")
+                .body(body);
     }
 
     //  Get order by ID (Admin only)
@@ -42,18 +122,30 @@ public class AdminOrderController {
 
     //  Update order status (Admin only)
     @PutMapping("/{orderId}/status")
-    public ResponseEntity<OrderDTO> updateOrderStatus(
+    public ResponseEntity<?> updateOrderStatus(
             @PathVariable int orderId,
             @RequestBody OrderStatusUpdateRequest request) {
-        OrderDTO updatedOrder = orderService.updateOrderStatus(orderId, request.getStatus());
-        return ResponseEntity.ok(updatedOrder);
+        try {
+            OrderDTO updatedOrder = orderService.updateOrderStatus(orderId, request.getStatus());
+            return ResponseEntity.ok(updatedOrder);
+        } catch (IllegalStateException e) {
+            // Cancelled and failed orders are final, their stock may already be sold again
+            return ResponseEntity.status(409).body(Map.of("message", e.getMessage()));
+        }
     }
 
-    //  Get orders by user ID (Admin only)
+    //  Get orders by user ID, a page at a time (Admin only)
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<OrderDTO>> getOrdersByUserId(@PathVariable Long userId) {
-        List<OrderDTO> orders = orderService.getOrdersByUserId(userId);
-        return ResponseEntity.ok(orders);
+    public ResponseEntity<?> getOrdersByUserId(@PathVariable Long userId,
+                                               @RequestParam(required = false) String cursor,
+                                               @RequestParam(required = false) Integer size) {
+        try {
+            return ResponseEntity.ok(orderService.getUserOrderPage(userId, null, cursor, size));
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.status(404).body(Map.of("message", e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
     }
 
     //  Get order statistics (Admin only)
@@ -62,4 +154,28 @@ public class AdminOrderController {
         OrderStatsDTO stats = orderService.getOrderStatistics();
         return ResponseEntity.ok(stats);
     }
+
+    //  Order count, revenue and units per hour or day and status, for charts (Admin only)
+    //  ?granularity=DAY&from=2025-01-01&to=2025-03-31&status=PAID
+    //  from/to are inclusive calendar days (server time zone); buckets with no orders are left out
+    @GetMapping("/rollups")
+    public ResponseEntity<?> getOrderRollups(
+            @RequestParam(defaultValue = "DAY") String granularity,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String status) {
+        try {
+            List<OrderRollupDTO> series = orderRollupService.getSeries(granularity, from.atStartOfDay(),
+                    to.plusDays(1).atStartOfDay(), status);
+            return ResponseEntity.ok(series);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    //  Checkout queue depth and wait times per campaign (Admin only)
+    @GetMapping("/queue/stats")
+    public ResponseEntity<List<CheckoutQueueStatsDTO>> getCheckoutQueueStats() {
+        return ResponseEntity.ok(checkoutQueueService.getStats());
+    }
 }
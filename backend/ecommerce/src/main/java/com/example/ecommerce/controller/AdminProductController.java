@@ -0,0 +1,96 @@
+package com.example.ecommerce.controller;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.example.ecommerce.dto.ProductCacheStatsDTO;
+import com.example.ecommerce.service.DataFormat;
+import com.example.ecommerce.service.ExportLimiter;
+import com.example.ecommerce.service.ProductExportService;
+import com.example.ecommerce.service.ProductImportService;
+import com.example.ecommerce.service.ProductService;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/api/admin/products")
+public class AdminProductController {
+
+    private final ProductService productService;
+    private final ProductImportService productImportService;
+    private final ProductExportService productExportService;
+    private final ExportLimiter exportLimiter;
+
+    public AdminProductController(ProductService productService, ProductImportService productImportService,
+                                  ProductExportService productExportService, ExportLimiter exportLimiter) {
+        this.productService = productService;
+        this.productImportService = productImportService;
+        this.productExportService = productExportService;
+        this.exportLimiter = exportLimiter;
+    }
+
+    //  Get product cache counters (Admin only)
+    @GetMapping("/cache/stats")
+    public ResponseEntity<ProductCacheStatsDTO> getCacheStats() {
+        return ResponseEntity.ok(productService.getCacheStats());
+    }
+
+    //  Bulk import products (Admin only)
+    // Body is streamed: CSV with a header row (name,description,price) or NDJSON, one product object per line.
+    // Format comes from ?format=csv|ndjson or the Content-Type. Invalid rows are skipped and reported.
+    @PostMapping("/import")
+    public ResponseEntity<?> importProducts(
+            @RequestParam(required = false) String format,
+            @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
+            InputStream body
+    ) {
+        try {
+            DataFormat resolved = DataFormat.resolve(format, contentType);
+            return ResponseEntity.ok(productImportService.importProducts(body, resolved));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        } catch (IOException e) {
+            return ResponseEntity.badRequest().body("Failed to read import: " + e.getMessage());
+        }
+    }
+
+    //  Export the whole catalog (Admin only)
+    // ?format=ndjson|csv (default ndjson), &gzip=true for a .gz download. Streamed from a DB cursor.
+    // 429 while the maximum number of exports (catalog.export.max-concurrent) is already running.
+    @GetMapping("/export")
+    // (Declared as StreamingResponseBody so Spring MVC streams it asynchronously, errors included)
+    public ResponseEntity<StreamingResponseBody> exportProducts(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            WebRequest request
+    ) {
+        DataFormat resolved;
+        try {
+            resolved = DataFormat.resolve(format, null);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(out -> out.write(e.getMessage().getBytes(StandardCharsets.UTF_8)));
+        }
+        String filename = "products-" + LocalDate.now() + "." + resolved.getExtension() + (gzip ? ".gz" : "");
+        StreamingResponseBody body;
+        try {
+            body = exportLimiter.limit(request, productExportService.exportProducts(resolved, gzip));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .body(out -> out.write(e.getMessage().getBytes(StandardCharsets.UTF_8)));
+        }
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .header(HttpHeaders.CONTENT_TYPE, gzip ? "application/gzip" : resolved.getMediaType() + ";charset=UTF-8")
+                .body(body);
+    }
+}
@@ -2,10 +2,15 @@ package com.example.ecommerce.controller;
 
 import com.example.ecommerce.dto.CartDTO;
 import com.example.ecommerce.dto.CartItemDTO;
+import com.example.ecommerce.dto.CartOperationRequest;
+import com.example.ecommerce.dto.CartSummaryDTO;
 import com.example.ecommerce.service.CartService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/cart")
@@ -25,17 +30,39 @@ public class CartController {
 
     // Add product to cart
     @PostMapping("/{cartId}/add/{productId}")
-    public CartDTO addProductToCart(@PathVariable int cartId,
-                                    @PathVariable int productId,
-                                    @RequestParam(defaultValue = "1") int quantity) {
-        return cartService.addProductToCart(cartId, productId, quantity);
+    public ResponseEntity<?> addProductToCart(@PathVariable int cartId,
+                                              @PathVariable int productId,
+                                              @RequestParam(defaultValue = "1") int quantity) {
+        try {
+            return ResponseEntity.ok(cartService.addProductToCart(cartId, productId, quantity));
+        } catch (IllegalStateException e) {
+            // Still conflicting with concurrent edits after the retries
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    // Apply several add / remove / set-quantity operations in one request, all or nothing
+    @PostMapping("/{cartId}/batch")
+    public ResponseEntity<?> applyOperations(@PathVariable int cartId,
+                                             @RequestBody List<CartOperationRequest> operations) {
+        try {
+            return ResponseEntity.ok(cartService.applyOperations(cartId, operations));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("message", e.getMessage()));
+        }
     }
 
     // Remove product from cart
     @DeleteMapping("/{cartId}/remove/{productId}")
-    public CartDTO removeProductFromCart(@PathVariable int cartId,
-                                         @PathVariable int productId) {
-        return cartService.removeProductFromCart(cartId, productId);
+    public ResponseEntity<?> removeProductFromCart(@PathVariable int cartId,
+                                                   @PathVariable int productId) {
+        try {
+            return ResponseEntity.ok(cartService.removeProductFromCart(cartId, productId));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("message", e.getMessage()));
+        }
     }
 
     // Get all items in a cart
@@ -44,6 +71,12 @@ public class CartController {
         return cartService.getCartItems(cartId);
     }
 
+    // Item count and subtotal only; cheap enough to poll
+    @GetMapping("/{cartId}/summary")
+    public CartSummaryDTO getCartSummary(@PathVariable int cartId) {
+        return cartService.getCartSummary(cartId);
+    }
+
     // Get cart by ID
     @GetMapping("/{cartId}")
     public CartDTO getCartById(@PathVariable int cartId) {
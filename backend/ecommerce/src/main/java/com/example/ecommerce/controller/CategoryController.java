@@ -0,0 +1,31 @@
+package com.example.ecommerce.controller;
+
+import com.example.ecommerce.dto.CategoryDTO;
+import com.example.ecommerce.service.CategoryService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import jakarta.annotation.security.PermitAll;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/categories")
+public class CategoryController {
+
+    private final CategoryService categoryService;
+
+    public CategoryController(CategoryService categoryService) {
+        this.categoryService = categoryService;
+    }
+
+    // Category tree with subtree product counts for navigation (Anyone)
+    // Browse a category with GET /api/products?categoryId=N
+    @GetMapping
+    @PermitAll
+    public ResponseEntity<List<CategoryDTO>> getCategories() {
+        return ResponseEntity.ok(categoryService.getCategoryTree());
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.ecommerce.controller;
+
+import com.example.ecommerce.dto.CheckoutTicketDTO;
+import com.example.ecommerce.service.CheckoutQueueService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+// Queued checkout for flash sales: take a ticket, poll it, then continue to payment with its orderId
+@RestController
+@RequestMapping("/api/orders/queue")
+public class CheckoutQueueController {
+
+    private final CheckoutQueueService checkoutQueueService;
+
+    public CheckoutQueueController(CheckoutQueueService checkoutQueueService) {
+        this.checkoutQueueService = checkoutQueueService;
+    }
+
+    // Queue a checkout of the cart (or of the selected cart item ids in the body) for a sale campaign
+    @PostMapping("/{campaign}/cart/{cartId}")
+    public ResponseEntity<?> enqueue(@PathVariable String campaign,
+                                     @PathVariable int cartId,
+                                     @RequestBody(required = false) List<Integer> selectedCartItemIds) {
+        try {
+            CheckoutTicketDTO ticket = checkoutQueueService.enqueue(campaign, cartId, selectedCartItemIds);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(ticket);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "5")
+                    .body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    // Poll a ticket; pollAfterMillis suggests when to ask again
+    @GetMapping("/tickets/{ticketId}")
+    public ResponseEntity<?> getTicket(@PathVariable String ticketId) {
+        try {
+            return ResponseEntity.ok(checkoutQueueService.getTicket(ticketId));
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.status(404).body(Map.of("message", e.getMessage()));
+        }
+    }
+}
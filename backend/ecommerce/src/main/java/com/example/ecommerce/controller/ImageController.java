@@ -0,0 +1,81 @@
+package com.example.ecommerce.controller;
+
+import com.example.ecommerce.storage.LocalImageStorage;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+
+// Serves images kept by LocalImageStorage without copying them through the heap
+@RestController
+@RequestMapping("/api/images")
+@ConditionalOnProperty(name = "catalog.image.storage", havingValue = "local")
+public class ImageController {
+
+    // Tomcat hands files to the kernel's sendfile() when the connector supports it
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final LocalImageStorage imageStorage;
+
+    public ImageController(LocalImageStorage imageStorage) {
+        this.imageStorage = imageStorage;
+    }
+
+    @GetMapping("/{name:.+}")
+    public void getImage(@PathVariable String name, HttpServletRequest request,
+                         HttpServletResponse response) throws IOException {
+        Path file = imageStorage.resolve(name);
+        if (file == null || !Files.isRegularFile(file)) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        // Stored names are never reused, so the file behind a URL never changes
+        long length = Files.size(file);
+        String eTag = "\"" + name + "\"";
+        if (new ServletWebRequest(request, response).checkNotModified(eTag, Files.getLastModifiedTime(file).toMillis())) {
+            return;
+        }
+        response.setHeader(HttpHeaders.CACHE_CONTROL,
+                CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable().getHeaderValue());
+        response.setContentType(MediaTypeFactory.getMediaType(name)
+                .orElse(MediaType.APPLICATION_OCTET_STREAM).toString());
+        response.setContentLengthLong(length);
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toString());
+            request.setAttribute(SENDFILE_START, 0L);
+            request.setAttribute(SENDFILE_END, length);
+            return;
+        }
+
+        // No sendfile: transferTo still lets the JDK move bytes without a user-space buffer where it can
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = 0;
+            while (position < length) {
+                position += channel.transferTo(position, length - position, out);
+            }
+        }
+    }
+}
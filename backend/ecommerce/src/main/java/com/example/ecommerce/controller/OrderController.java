@@ -1,10 +1,13 @@
 package com.example.ecommerce.controller;
 
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.http.ResponseEntity;
 
 import com.example.ecommerce.dto.OrderDTO;
+import com.example.ecommerce.dto.UserOrderSummaryDTO;
 import com.example.ecommerce.service.OrderService;
 
 @RestController
@@ -19,22 +22,45 @@ public class OrderController {
 
     // Place order for full cart (existing)
     @PostMapping("/cart/{cartId}")
-    public OrderDTO placeFullCartOrder(@PathVariable int cartId) {
-        return orderService.placeOrderFromCart(cartId, null);
+    public ResponseEntity<?> placeFullCartOrder(@PathVariable int cartId) {
+        try {
+            return ResponseEntity.ok(orderService.placeOrderFromCart(cartId, null));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(409).body(Map.of("message", e.getMessage())); // out of stock
+        }
     }
 
     // Place order for selected cart items (existing)
     @PostMapping("/cart/{cartId}/items")
-    public OrderDTO placePartialOrder(@PathVariable int cartId,
-                                      @RequestBody List<Integer> selectedCartItemIds) {
-        return orderService.placeOrderFromCart(cartId, selectedCartItemIds);
+    public ResponseEntity<?> placePartialOrder(@PathVariable int cartId,
+                                               @RequestBody List<Integer> selectedCartItemIds) {
+        try {
+            return ResponseEntity.ok(orderService.placeOrderFromCart(cartId, selectedCartItemIds));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(409).body(Map.of("message", e.getMessage())); // out of stock
+        }
     }
 
-    // Get users order history
+    // Get users order history, a page at a time, newest first
+    // ?status=PAID (optional) &size=N &cursor=<nextCursor from previous page>
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<OrderDTO>> getUserOrders(@PathVariable Long userId) {
-        List<OrderDTO> orders = orderService.getOrdersByUserId(userId);
-        return ResponseEntity.ok(orders);
+    public ResponseEntity<?> getUserOrders(@PathVariable Long userId,
+                                           @RequestParam(required = false) String status,
+                                           @RequestParam(required = false) String cursor,
+                                           @RequestParam(required = false) Integer size) {
+        try {
+            return ResponseEntity.ok(orderService.getUserOrderPage(userId, status, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.status(404).body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    // Order count and spend per status, for the account dashboard
+    @GetMapping("/user/{userId}/summary")
+    public ResponseEntity<UserOrderSummaryDTO> getUserOrderSummary(@PathVariable Long userId) {
+        return ResponseEntity.ok(orderService.getUserOrderSummary(userId));
     }
 
     // Get specific order by ID (for user to view their own order)
@@ -60,16 +86,12 @@ public class OrderController {
         }
     }
 
-    // Get user's orders by status
+    // Get user's orders by status (first page; same as /user/{userId}?status=...)
     @GetMapping("/user/{userId}/status/{status}")
-    public ResponseEntity<List<OrderDTO>> getUserOrdersByStatus(@PathVariable Long userId, @PathVariable String status) {
-        List<OrderDTO> userOrders = orderService.getOrdersByUserId(userId);
-        
-        List<OrderDTO> filteredOrders = userOrders.stream()
-                .filter(order -> order.getStatus().equalsIgnoreCase(status))
-                .toList();
-        
-        return ResponseEntity.ok(filteredOrders);
+    public ResponseEntity<?> getUserOrdersByStatus(@PathVariable Long userId, @PathVariable String status,
+                                                   @RequestParam(required = false) String cursor,
+                                                   @RequestParam(required = false) Integer size) {
+        return getUserOrders(userId, status, cursor, size);
     }
     
     // Cancel order (user can only cancel their own order if still PENDING/PROCESSING)
@@ -1,10 +1,15 @@
 package com.example.ecommerce.controller;
 
+import com.example.ecommerce.dto.ProductPageDTO;
+import com.example.ecommerce.dto.ProductSuggestionDTO;
+import com.example.ecommerce.dto.StockUpdateRequest;
 import com.example.ecommerce.entity.Product;
 import com.example.ecommerce.service.ProductService;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.http.MediaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -12,14 +17,19 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.annotation.security.PermitAll;
 
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
 
 @RestController
 @RequestMapping("/api/products")
 public class ProductController {
 
     private final ProductService productService;
-    public ProductController(ProductService productService) {
+    private final ObjectMapper objectMapper;
+    public ProductController(ProductService productService, ObjectMapper objectMapper) {
         this.productService = productService;
+        this.objectMapper = objectMapper;
     }
 
     
@@ -32,8 +42,7 @@ public class ProductController {
     ) {
         try {
             // convert JSON string into Product object
-            ObjectMapper mapper = new ObjectMapper();
-            Product product = mapper.readValue(productJson, Product.class);
+            Product product = objectMapper.readValue(productJson, Product.class);
 
             return ResponseEntity.ok(productService.saveProduct(product, imageFile));
         } catch (Exception e) {
@@ -43,11 +52,68 @@ public class ProductController {
     }
 
 
-    // Get all products (Anyone)
+    // Get products (Anyone)
+    // Paged by default: ?sort=id|price|name&direction=asc|desc&size=N&cursor=<nextCursor from previous page>
+    // Optional price band: &minPrice=X&maxPrice=Y (inclusive)
+    // Optional &categoryId=N limits the page to that category and all of its sub-categories
+    // Pass ?unpaged=true for the legacy response containing the whole catalog as a plain list
+    // Responses carry a strong ETag derived from the catalog version; If-None-Match hits get a 304
     @GetMapping
     @PermitAll
-    public ResponseEntity<List<Product>> getAllProducts() {
-        return ResponseEntity.ok(productService.getAllProducts());
+    public ResponseEntity<?> getAllProducts(
+            @RequestParam(defaultValue = "false") boolean unpaged,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String direction,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(required = false) Integer categoryId,
+            WebRequest webRequest
+    ) {
+        // Read the version before loading data so a concurrent change can only make the tag older, never newer
+        String query = unpaged + "|" + sort + "|" + direction + "|" + cursor + "|" + size + "|" + minPrice + "|" + maxPrice
+                + "|" + categoryId;
+        String eTag = "\"" + productService.getCatalogVersionTag() + "-" + Integer.toHexString(query.hashCode()) + "\"";
+        long lastModified = productService.getCatalogLastModified();
+        if (webRequest.checkNotModified(eTag, lastModified)) {
+            return null; // 304 already prepared, no DB access or serialization
+        }
+
+        ResponseEntity.BodyBuilder ok = ResponseEntity.ok()
+                .eTag(eTag)
+                .lastModified(lastModified)
+                .cacheControl(CacheControl.noCache());
+        if (unpaged) {
+            return ok.body(productService.getAllProducts());
+        }
+        try {
+            ProductPageDTO page = productService.getProductPage(sort, direction, cursor, size, minPrice, maxPrice,
+                    categoryId);
+            return ok.body(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // Full-text search over name and description (Anyone)
+    @GetMapping("/search")
+    @PermitAll
+    public ResponseEntity<List<Product>> searchProducts(
+            @RequestParam("q") String query,
+            @RequestParam(defaultValue = "20") int limit
+    ) {
+        return ResponseEntity.ok(productService.searchProducts(query, limit));
+    }
+
+    // Type-ahead suggestions for the search box (Anyone)
+    @GetMapping("/autocomplete")
+    @PermitAll
+    public ResponseEntity<List<ProductSuggestionDTO>> autocomplete(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "10") int limit
+    ) {
+        return ResponseEntity.ok(productService.suggestProductNames(prefix, limit));
     }
 
     // Delete product (Admin only)
@@ -73,8 +139,7 @@ public class ProductController {
             @RequestPart(value = "image", required = false) MultipartFile newImage
     ) {
         try {
-            ObjectMapper mapper = new ObjectMapper();
-            Product updatedProduct = mapper.readValue(productJson, Product.class);
+            Product updatedProduct = objectMapper.readValue(productJson, Product.class);
 
             return ResponseEntity.ok(productService.updateProduct(id, updatedProduct, newImage));
         } catch (Exception e) {
@@ -83,4 +148,19 @@ public class ProductController {
         }
     }
 
+    // Change stock (Admin only). Body {"delta": 5} restocks relative to the current level; {"stock": 20,
+    // "expectedStock": 12} sets it only if it is still 12 (409 otherwise). Product edits never touch stock.
+    @PutMapping("/{id}/stock")
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    public ResponseEntity<?> updateStock(@PathVariable int id, @RequestBody StockUpdateRequest request) {
+        try {
+            return ResponseEntity.ok(productService.updateStock(id, request));
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.status(404).body(Map.of("message", e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(409).body(Map.of("message", e.getMessage()));
+        }
+    }
 }
@@ -17,6 +17,12 @@ public class CartDTO {
                          .collect(Collectors.toList());
     }
 
+    public CartDTO(int id, long userId, List<CartItemDTO> items) {
+        this.id = id;
+        this.userId = userId;
+        this.items = items;
+    }
+
     // Getters and setters
     public int getId() { return id; }
     public void setId(int id) { this.id = id; }
@@ -1,6 +1,7 @@
 package com.example.ecommerce.dto;
 
 import com.example.ecommerce.entity.CartItem;
+import com.example.ecommerce.entity.Product;
 
     public class CartItemDTO {
         private int id;
@@ -22,6 +23,17 @@ import com.example.ecommerce.entity.CartItem;
         this.quantity = item.getQuantity();
     }
 
+    // For carts held in memory; id may be a temporary (negative) id until the item is written to the DB
+    public CartItemDTO(int id, Product product, int quantity) {
+        this.id = id;
+        this.productId = product.getId();
+        this.productName = product.getName();
+        this.productDescription = product.getDescription();
+        this.productImageUrl = product.getImageUrl();
+        this.price = product.getPrice();
+        this.quantity = quantity;
+    }
+
     // Getters and setters
     public int getId() { return id; }
     public void setId(int id) { this.id = id; }
@@ -0,0 +1,29 @@
+package com.example.ecommerce.dto;
+
+// One step of a batch cart edit. ADD merges quantity into the product's line, SET replaces it
+// (0 removes the line), REMOVE drops the line if present.
+public class CartOperationRequest {
+
+    public enum Type { ADD, REMOVE, SET }
+
+    private Type type;
+    private Integer productId;
+    private Integer quantity;
+
+    public CartOperationRequest() {}
+
+    public CartOperationRequest(Type type, Integer productId, Integer quantity) {
+        this.type = type;
+        this.productId = productId;
+        this.quantity = quantity;
+    }
+
+    public Type getType() { return type; }
+    public void setType(Type type) { this.type = type; }
+
+    public Integer getProductId() { return productId; }
+    public void setProductId(Integer productId) { this.productId = productId; }
+
+    public Integer getQuantity() { return quantity; }
+    public void setQuantity(Integer quantity) { this.quantity = quantity; }
+}
@@ -0,0 +1,25 @@
+package com.example.ecommerce.dto;
+
+// Item count and subtotal of a cart, without its lines (navbar badge, polling)
+public class CartSummaryDTO {
+    private int cartId;
+    private int itemCount;
+    private double subtotal;
+
+    public CartSummaryDTO() {}
+
+    public CartSummaryDTO(int cartId, int itemCount, double subtotal) {
+        this.cartId = cartId;
+        this.itemCount = itemCount;
+        this.subtotal = subtotal;
+    }
+
+    public int getCartId() { return cartId; }
+    public void setCartId(int cartId) { this.cartId = cartId; }
+
+    public int getItemCount() { return itemCount; }
+    public void setItemCount(int itemCount) { this.itemCount = itemCount; }
+
+    public double getSubtotal() { return subtotal; }
+    public void setSubtotal(double subtotal) { this.subtotal = subtotal; }
+}
@@ -0,0 +1,37 @@
+package com.example.ecommerce.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Node of the category navigation tree; productCount includes products in all descendants
+public class CategoryDTO {
+    private Integer id;
+    private String name;
+    private Integer parentId;
+    private long productCount;
+    private List<CategoryDTO> children = new ArrayList<>();
+
+    public CategoryDTO() {}
+
+    public CategoryDTO(Integer id, String name, Integer parentId, long productCount) {
+        this.id = id;
+        this.name = name;
+        this.parentId = parentId;
+        this.productCount = productCount;
+    }
+
+    public Integer getId() { return id; }
+    public void setId(Integer id) { this.id = id; }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public Integer getParentId() { return parentId; }
+    public void setParentId(Integer parentId) { this.parentId = parentId; }
+
+    public long getProductCount() { return productCount; }
+    public void setProductCount(long productCount) { this.productCount = productCount; }
+
+    public List<CategoryDTO> getChildren() { return children; }
+    public void setChildren(List<CategoryDTO> children) { this.children = children; }
+}
@@ -0,0 +1,15 @@
+package com.example.ecommerce.dto;
+
+// Body for creating a category; parentId is optional (top-level when absent)
+public class CategoryRequest {
+    private String name;
+    private Integer parentId;
+
+    public CategoryRequest() {}
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public Integer getParentId() { return parentId; }
+    public void setParentId(Integer parentId) { this.parentId = parentId; }
+}
@@ -0,0 +1,47 @@
+package com.example.ecommerce.dto;
+
+// Per-campaign counters of the checkout admission queue (since startup, this instance)
+public class CheckoutQueueStatsDTO {
+    private String campaign;
+    private int depth;
+    private int capacity;
+    private long enqueued;
+    private long rejected;
+    private long placed;
+    private long failed;
+    private long expired;
+    private double averageWaitMillis;
+    private long maxWaitMillis;
+
+    public CheckoutQueueStatsDTO() {}
+
+    public String getCampaign() { return campaign; }
+    public void setCampaign(String campaign) { this.campaign = campaign; }
+
+    public int getDepth() { return depth; }
+    public void setDepth(int depth) { this.depth = depth; }
+
+    public int getCapacity() { return capacity; }
+    public void setCapacity(int capacity) { this.capacity = capacity; }
+
+    public long getEnqueued() { return enqueued; }
+    public void setEnqueued(long enqueued) { this.enqueued = enqueued; }
+
+    public long getRejected() { return rejected; }
+    public void setRejected(long rejected) { this.rejected = rejected; }
+
+    public long getPlaced() { return placed; }
+    public void setPlaced(long placed) { this.placed = placed; }
+
+    public long getFailed() { return failed; }
+    public void setFailed(long failed) { this.failed = failed; }
+
+    public long getExpired() { return expired; }
+    public void setExpired(long expired) { this.expired = expired; }
+
+    public double getAverageWaitMillis() { return averageWaitMillis; }
+    public void setAverageWaitMillis(double averageWaitMillis) { this.averageWaitMillis = averageWaitMillis; }
+
+    public long getMaxWaitMillis() { return maxWaitMillis; }
+    public void setMaxWaitMillis(long maxWaitMillis) { this.maxWaitMillis = maxWaitMillis; }
+}
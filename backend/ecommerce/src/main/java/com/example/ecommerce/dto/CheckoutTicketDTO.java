@@ -0,0 +1,35 @@
+package com.example.ecommerce.dto;
+
+// State of a queued checkout. Poll until status is PLACED (then go to checkout with orderId) or FAILED/EXPIRED.
+public class CheckoutTicketDTO {
+    private String ticketId;
+    private String campaign;
+    private String status;      // QUEUED, PROCESSING, PLACED, FAILED, EXPIRED
+    private long position;      // tickets ahead of this one plus one; 0 once it left the queue
+    private Integer orderId;
+    private String message;
+    private long pollAfterMillis;
+
+    public CheckoutTicketDTO() {}
+
+    public String getTicketId() { return ticketId; }
+    public void setTicketId(String ticketId) { this.ticketId = ticketId; }
+
+    public String getCampaign() { return campaign; }
+    public void setCampaign(String campaign) { this.campaign = campaign; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public long getPosition() { return position; }
+    public void setPosition(long position) { this.position = position; }
+
+    public Integer getOrderId() { return orderId; }
+    public void setOrderId(Integer orderId) { this.orderId = orderId; }
+
+    public String getMessage() { return message; }
+    public void setMessage(String message) { this.message = message; }
+
+    public long getPollAfterMillis() { return pollAfterMillis; }
+    public void setPollAfterMillis(long pollAfterMillis) { this.pollAfterMillis = pollAfterMillis; }
+}
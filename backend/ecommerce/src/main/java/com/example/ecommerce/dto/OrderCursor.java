@@ -0,0 +1,47 @@
+package com.example.ecommerce.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+
+import com.example.ecommerce.entity.Order;
+
+// Opaque keyset position for order listings (newest first): order date of the last row returned plus its id
+public class OrderCursor {
+
+    private final long lastOrderDate;
+    private final int lastId;
+
+    public OrderCursor(long lastOrderDate, int lastId) {
+        this.lastOrderDate = lastOrderDate;
+        this.lastId = lastId;
+    }
+
+    // Build the cursor that points just past the given order
+    public static OrderCursor after(Order order) {
+        return new OrderCursor(order.getOrderDate().getTime(), order.getId());
+    }
+
+    // Format: orderDateMillis:lastId
+    public String encode() {
+        String raw = lastOrderDate + ":" + lastId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static OrderCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":", 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+            return new OrderCursor(Long.parseLong(parts[0]), Integer.parseInt(parts[1]));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + token, e);
+        }
+    }
+
+    public Date getLastOrderDate() { return new Date(lastOrderDate); }
+
+    public int getLastId() { return lastId; }
+}
@@ -0,0 +1,32 @@
+package com.example.ecommerce.dto;
+
+import java.util.List;
+
+// One page of a keyset-paginated order listing, newest first
+public class OrderPageDTO {
+    private List<OrderDTO> items;
+    private String nextCursor;   // null when this is the last page
+    private boolean hasMore;
+    private int size;
+
+    public OrderPageDTO() {}
+
+    public OrderPageDTO(List<OrderDTO> items, String nextCursor, int size) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.hasMore = nextCursor != null;
+        this.size = size;
+    }
+
+    public List<OrderDTO> getItems() { return items; }
+    public void setItems(List<OrderDTO> items) { this.items = items; }
+
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+
+    public boolean isHasMore() { return hasMore; }
+    public void setHasMore(boolean hasMore) { this.hasMore = hasMore; }
+
+    public int getSize() { return size; }
+    public void setSize(int size) { this.size = size; }
+}
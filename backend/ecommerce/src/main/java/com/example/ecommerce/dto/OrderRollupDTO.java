@@ -0,0 +1,37 @@
+package com.example.ecommerce.dto;
+
+import java.util.Date;
+
+// One point of an order time series: totals for one status over one hour or day starting at bucketStart
+public class OrderRollupDTO {
+    private Date bucketStart;
+    private String status;
+    private long orderCount;
+    private double revenue;
+    private long units;
+
+    public OrderRollupDTO() {}
+
+    public OrderRollupDTO(Date bucketStart, String status, long orderCount, double revenue, long units) {
+        this.bucketStart = bucketStart;
+        this.status = status;
+        this.orderCount = orderCount;
+        this.revenue = revenue;
+        this.units = units;
+    }
+
+    public Date getBucketStart() { return bucketStart; }
+    public void setBucketStart(Date bucketStart) { this.bucketStart = bucketStart; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public long getOrderCount() { return orderCount; }
+    public void setOrderCount(long orderCount) { this.orderCount = orderCount; }
+
+    public double getRevenue() { return revenue; }
+    public void setRevenue(double revenue) { this.revenue = revenue; }
+
+    public long getUnits() { return units; }
+    public void setUnits(long units) { this.units = units; }
+}
@@ -0,0 +1,62 @@
+package com.example.ecommerce.dto;
+
+// Counters exposed by the in-process product cache
+public class ProductCacheStatsDTO {
+    private int size;
+    private int maxEntries;
+    private long ttlSeconds;
+    private boolean snapshotCached;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long expirations;
+    private long snapshotHits;
+    private long snapshotMisses;
+
+    public ProductCacheStatsDTO() {}
+
+    public ProductCacheStatsDTO(int size, int maxEntries, long ttlSeconds, boolean snapshotCached,
+                                long hits, long misses, long evictions, long expirations,
+                                long snapshotHits, long snapshotMisses) {
+        this.size = size;
+        this.maxEntries = maxEntries;
+        this.ttlSeconds = ttlSeconds;
+        this.snapshotCached = snapshotCached;
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.expirations = expirations;
+        this.snapshotHits = snapshotHits;
+        this.snapshotMisses = snapshotMisses;
+    }
+
+    public int getSize() { return size; }
+    public void setSize(int size) { this.size = size; }
+
+    public int getMaxEntries() { return maxEntries; }
+    public void setMaxEntries(int maxEntries) { this.maxEntries = maxEntries; }
+
+    public long getTtlSeconds() { return ttlSeconds; }
+    public void setTtlSeconds(long ttlSeconds) { this.ttlSeconds = ttlSeconds; }
+
+    public boolean isSnapshotCached() { return snapshotCached; }
+    public void setSnapshotCached(boolean snapshotCached) { this.snapshotCached = snapshotCached; }
+
+    public long getHits() { return hits; }
+    public void setHits(long hits) { this.hits = hits; }
+
+    public long getMisses() { return misses; }
+    public void setMisses(long misses) { this.misses = misses; }
+
+    public long getEvictions() { return evictions; }
+    public void setEvictions(long evictions) { this.evictions = evictions; }
+
+    public long getExpirations() { return expirations; }
+    public void setExpirations(long expirations) { this.expirations = expirations; }
+
+    public long getSnapshotHits() { return snapshotHits; }
+    public void setSnapshotHits(long snapshotHits) { this.snapshotHits = snapshotHits; }
+
+    public long getSnapshotMisses() { return snapshotMisses; }
+    public void setSnapshotMisses(long snapshotMisses) { this.snapshotMisses = snapshotMisses; }
+}
@@ -0,0 +1,70 @@
+package com.example.ecommerce.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import com.example.ecommerce.entity.Product;
+
+// Opaque keyset position for product listings: sort key of the last row returned plus its id
+public class ProductCursor {
+
+    private final String sort;
+    private final boolean descending;
+    private final int lastId;
+    private final String lastValue;
+
+    public ProductCursor(String sort, boolean descending, int lastId, String lastValue) {
+        this.sort = sort;
+        this.descending = descending;
+        this.lastId = lastId;
+        this.lastValue = lastValue;
+    }
+
+    // Build the cursor that points just past the given product
+    public static ProductCursor after(Product product, String sort, boolean descending) {
+        String value;
+        switch (sort) {
+            case "price":
+                value = Double.toString(product.getPrice());
+                break;
+            case "name":
+                value = product.getName();
+                break;
+            default:
+                value = "";
+        }
+        return new ProductCursor(sort, descending, product.getId(), value);
+    }
+
+    // Format: sort:direction:lastId:lastValue (value last, since names may contain ':')
+    public String encode() {
+        String raw = sort + ":" + (descending ? "desc" : "asc") + ":" + lastId + ":" + lastValue;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ProductCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":", 4);
+            if (parts.length != 4) {
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+            ProductCursor cursor = new ProductCursor(parts[0], "desc".equals(parts[1]),
+                    Integer.parseInt(parts[2]), parts[3]);
+            if ("price".equals(cursor.sort)) {
+                Double.parseDouble(cursor.lastValue);
+            }
+            return cursor;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + token, e);
+        }
+    }
+
+    public String getSort() { return sort; }
+
+    public boolean isDescending() { return descending; }
+
+    public int getLastId() { return lastId; }
+
+    public String getLastValue() { return lastValue; }
+}
@@ -0,0 +1,59 @@
+package com.example.ecommerce.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ProductImportResultDTO {
+
+    private String format;
+    private int rowsRead;
+    private int imported;
+    private int failed;
+    private int batches;
+    private long elapsedMillis;
+    private double rowsPerSecond;
+    private List<RowError> errors = new ArrayList<>();
+    private boolean errorsTruncated;
+
+    public static class RowError {
+        private final int row;
+        private final String message;
+
+        public RowError(int row, String message) {
+            this.row = row;
+            this.message = message;
+        }
+
+        // 1-based data row (the CSV header is not counted)
+        public int getRow() { return row; }
+
+        public String getMessage() { return message; }
+    }
+
+    public String getFormat() { return format; }
+    public void setFormat(String format) { this.format = format; }
+
+    public int getRowsRead() { return rowsRead; }
+    public void setRowsRead(int rowsRead) { this.rowsRead = rowsRead; }
+
+    public int getImported() { return imported; }
+    public void setImported(int imported) { this.imported = imported; }
+
+    public int getFailed() { return failed; }
+    public void setFailed(int failed) { this.failed = failed; }
+
+    public int getBatches() { return batches; }
+    public void setBatches(int batches) { this.batches = batches; }
+
+    public long getElapsedMillis() { return elapsedMillis; }
+    public void setElapsedMillis(long elapsedMillis) { this.elapsedMillis = elapsedMillis; }
+
+    public double getRowsPerSecond() { return rowsPerSecond; }
+    public void setRowsPerSecond(double rowsPerSecond) { this.rowsPerSecond = rowsPerSecond; }
+
+    public List<RowError> getErrors() { return errors; }
+    public void setErrors(List<RowError> errors) { this.errors = errors; }
+
+    public boolean isErrorsTruncated() { return errorsTruncated; }
+    public void setErrorsTruncated(boolean errorsTruncated) { this.errorsTruncated = errorsTruncated; }
+}
@@ -0,0 +1,44 @@
+package com.example.ecommerce.dto;
+
+import java.util.List;
+
+import com.example.ecommerce.entity.Product;
+
+// One page of a keyset-paginated product listing
+public class ProductPageDTO {
+    private List<Product> items;
+    private String nextCursor;   // null when this is the last page
+    private boolean hasMore;
+    private int size;
+    private String sort;
+    private String direction;
+
+    public ProductPageDTO() {}
+
+    public ProductPageDTO(List<Product> items, String nextCursor, int size, String sort, String direction) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.hasMore = nextCursor != null;
+        this.size = size;
+        this.sort = sort;
+        this.direction = direction;
+    }
+
+    public List<Product> getItems() { return items; }
+    public void setItems(List<Product> items) { this.items = items; }
+
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+
+    public boolean isHasMore() { return hasMore; }
+    public void setHasMore(boolean hasMore) { this.hasMore = hasMore; }
+
+    public int getSize() { return size; }
+    public void setSize(int size) { this.size = size; }
+
+    public String getSort() { return sort; }
+    public void setSort(String sort) { this.sort = sort; }
+
+    public String getDirection() { return direction; }
+    public void setDirection(String direction) { this.direction = direction; }
+}
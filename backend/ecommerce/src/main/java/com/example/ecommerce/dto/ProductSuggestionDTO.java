@@ -0,0 +1,25 @@
+package com.example.ecommerce.dto;
+
+// Autocomplete entry for the product search box
+public class ProductSuggestionDTO {
+    private int productId;
+    private String name;
+    private long orderCount;
+
+    public ProductSuggestionDTO() {}
+
+    public ProductSuggestionDTO(int productId, String name, long orderCount) {
+        this.productId = productId;
+        this.name = name;
+        this.orderCount = orderCount;
+    }
+
+    public int getProductId() { return productId; }
+    public void setProductId(int productId) { this.productId = productId; }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public long getOrderCount() { return orderCount; }
+    public void setOrderCount(long orderCount) { this.orderCount = orderCount; }
+}
@@ -0,0 +1,21 @@
+package com.example.ecommerce.dto;
+
+// Body for changing a product's stock. Either delta (added atomically, negative to remove) or stock, which
+// replaces the level only while it still equals expectedStock, the level the admin was looking at.
+// A null stock / expectedStock means "not tracked".
+public class StockUpdateRequest {
+    private Integer delta;
+    private Integer stock;
+    private Integer expectedStock;
+
+    public StockUpdateRequest() {}
+
+    public Integer getDelta() { return delta; }
+    public void setDelta(Integer delta) { this.delta = delta; }
+
+    public Integer getStock() { return stock; }
+    public void setStock(Integer stock) { this.stock = stock; }
+
+    public Integer getExpectedStock() { return expectedStock; }
+    public void setExpectedStock(Integer expectedStock) { this.expectedStock = expectedStock; }
+}
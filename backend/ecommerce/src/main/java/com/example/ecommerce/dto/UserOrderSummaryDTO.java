@@ -0,0 +1,27 @@
+package com.example.ecommerce.dto;
+
+import java.util.Map;
+
+// Per-user order totals for the account dashboard, aggregated in the DB
+public class UserOrderSummaryDTO {
+    private long totalOrders;
+    private double totalSpent;
+    private Map<String, Long> ordersByStatus;
+
+    public UserOrderSummaryDTO() {}
+
+    public UserOrderSummaryDTO(long totalOrders, double totalSpent, Map<String, Long> ordersByStatus) {
+        this.totalOrders = totalOrders;
+        this.totalSpent = totalSpent;
+        this.ordersByStatus = ordersByStatus;
+    }
+
+    public long getTotalOrders() { return totalOrders; }
+    public void setTotalOrders(long totalOrders) { this.totalOrders = totalOrders; }
+
+    public double getTotalSpent() { return totalSpent; }
+    public void setTotalSpent(double totalSpent) { this.totalSpent = totalSpent; }
+
+    public Map<String, Long> getOrdersByStatus() { return ordersByStatus; }
+    public void setOrdersByStatus(Map<String, Long> ordersByStatus) { this.ordersByStatus = ordersByStatus; }
+}
@@ -5,8 +5,10 @@ import java.util.ArrayList;
 import java.util.List;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.hibernate.annotations.DynamicUpdate;
 
 @Entity
+@DynamicUpdate // a version bump from an item change must not rewrite totals kept by CartRepository's updates
 public class Cart {
 
     @Id
@@ -21,6 +23,14 @@ public class Cart {
     @OneToMany(mappedBy = "cart", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     private List<CartItem> items = new ArrayList<>();
 
+    // Bumped whenever lines are added or removed through the aggregate, so concurrent batch edits can't both win
+    @Version
+    private long version;
+
+    // Maintained by CartRepository as lines change; null until first computed for carts that predate them
+    private Integer itemCount = 0;
+    private Double subtotal = 0.0;
+
 
     // Utility Methods
     public void addItem(CartItem item) {
@@ -53,4 +63,16 @@ public class Cart {
     public void setItems(List<CartItem> items) { 
     	this.items = items; 
     }
+
+    public long getVersion() { 
+    	return version; 
+    }
+
+    public Integer getItemCount() { 
+    	return itemCount; 
+    }
+
+    public Double getSubtotal() { 
+    	return subtotal; 
+    }
 }
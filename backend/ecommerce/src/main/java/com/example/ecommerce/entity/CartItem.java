@@ -3,8 +3,16 @@ package com.example.ecommerce.entity;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
 import jakarta.persistence.*;
+import java.util.Date;
 
 @Entity
+@Table(uniqueConstraints = {
+        // One line per product; a concurrent second insert fails and is retried as an increment
+        @UniqueConstraint(name = "uk_cart_item_cart_product", columnNames = {"cart_id", "product_id"})
+}, indexes = {
+        // Stale-line scan of the cart compaction job
+        @Index(name = "idx_cart_item_updated_at_id", columnList = "updated_at, id")
+})
 public class CartItem {
 
     @Id
@@ -22,6 +30,19 @@ public class CartItem {
 
     private int quantity;
 
+    @Version
+    private long version;
+
+    // Last time the line was added or changed; null for lines written before this was tracked
+    @Column(name = "updated_at")
+    private Date updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    void touch() {
+        updatedAt = new Date();
+    }
+
 
     public Integer getId() { return id; }
     public void setId(Integer id) { this.id = id; }
@@ -34,4 +55,8 @@ public class CartItem {
 
     public int getQuantity() { return quantity; }
     public void setQuantity(int quantity) { this.quantity = quantity; }
+
+    public long getVersion() { return version; }
+
+    public Date getUpdatedAt() { return updatedAt; }
 }
@@ -0,0 +1,41 @@
+package com.example.ecommerce.entity;
+
+import jakarta.persistence.*;
+
+@Entity
+@Table(name = "categories")
+public class Category {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @Column(nullable = false)
+    private String name;
+
+    // null for top-level categories; the full hierarchy lives in CategoryClosure
+    private Integer parentId;
+
+    // Products in this category and all of its descendants, maintained incrementally
+    @Column(nullable = false)
+    private long productCount;
+
+    public Category() {}
+
+    public Category(String name, Integer parentId) {
+        this.name = name;
+        this.parentId = parentId;
+    }
+
+    public Integer getId() { return id; }
+    public void setId(Integer id) { this.id = id; }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public Integer getParentId() { return parentId; }
+    public void setParentId(Integer parentId) { this.parentId = parentId; }
+
+    public long getProductCount() { return productCount; }
+    public void setProductCount(long productCount) { this.productCount = productCount; }
+}
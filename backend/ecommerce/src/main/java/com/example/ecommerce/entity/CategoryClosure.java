@@ -0,0 +1,60 @@
+package com.example.ecommerce.entity;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+// One row per (ancestor, descendant) pair, including each category paired with itself at depth 0,
+// so "everything under X" is a single index range on ancestor_id
+@Entity
+@Table(name = "category_closure", indexes = {
+        @Index(name = "idx_category_closure_descendant", columnList = "descendant_id, ancestor_id")
+})
+@IdClass(CategoryClosure.Key.class)
+public class CategoryClosure {
+
+    @Id
+    @Column(name = "ancestor_id")
+    private Integer ancestorId;
+
+    @Id
+    @Column(name = "descendant_id")
+    private Integer descendantId;
+
+    private int depth;
+
+    public static class Key implements Serializable {
+        private Integer ancestorId;
+        private Integer descendantId;
+
+        public Key() {}
+
+        public Key(Integer ancestorId, Integer descendantId) {
+            this.ancestorId = ancestorId;
+            this.descendantId = descendantId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return Objects.equals(ancestorId, key.ancestorId) && Objects.equals(descendantId, key.descendantId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(ancestorId, descendantId);
+        }
+    }
+
+    public Integer getAncestorId() { return ancestorId; }
+    public void setAncestorId(Integer ancestorId) { this.ancestorId = ancestorId; }
+
+    public Integer getDescendantId() { return descendantId; }
+    public void setDescendantId(Integer descendantId) { this.descendantId = descendantId; }
+
+    public int getDepth() { return depth; }
+    public void setDepth(int depth) { this.depth = depth; }
+}
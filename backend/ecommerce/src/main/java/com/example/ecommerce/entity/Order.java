@@ -1,10 +1,19 @@
 package com.example.ecommerce.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.DynamicUpdate;
+
 import java.util.*;
 
 @Entity
-@Table(name = "orders")   // "order" is reserved keyword
+@DynamicUpdate // only write changed columns; status is never written by entity saves, only by OrderRepository.updateStatusIf
+@Table(name = "orders", indexes = {   // "order" is reserved keyword
+        // Keyset listings, newest first: unfiltered, by status, by user, by user and status (OrderSpecifications)
+        @Index(name = "idx_orders_date_id", columnList = "order_date, id"),
+        @Index(name = "idx_orders_status_date_id", columnList = "status, order_date, id"),
+        @Index(name = "idx_orders_user_date_id", columnList = "user_id, order_date, id"),
+        @Index(name = "idx_orders_user_status_date_id", columnList = "user_id, status, order_date, id")
+})
 public class Order {
 
     @Id
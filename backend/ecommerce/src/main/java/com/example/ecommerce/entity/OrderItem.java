@@ -12,6 +12,9 @@ public class OrderItem {
     private int quantity;
     private double price;
 
+    // True while this line holds stock taken at checkout; cleared when the stock is given back
+    private boolean stockReserved;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "product_id")
     private Product product;
@@ -29,6 +32,9 @@ public class OrderItem {
     public double getPrice() { return price; }
     public void setPrice(double price) { this.price = price; }
 
+    public boolean isStockReserved() { return stockReserved; }
+    public void setStockReserved(boolean stockReserved) { this.stockReserved = stockReserved; }
+
     public Product getProduct() { return product; }
     public void setProduct(Product product) { this.product = product; }
 
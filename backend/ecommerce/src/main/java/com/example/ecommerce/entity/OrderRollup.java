@@ -0,0 +1,93 @@
+package com.example.ecommerce.entity;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.util.Date;
+import java.util.Objects;
+
+// Order count, revenue and units per status for one hour or one day (server time zone), kept up to date by
+// every status change (OrderRollupService) so time-series charts read one row per bucket and status.
+// Like OrderStatusStats, each bucket is split over a few slots picked by order id; reads sum them.
+@Entity
+@Table(name = "order_rollups")
+@IdClass(OrderRollup.Key.class)
+public class OrderRollup {
+
+    public enum Granularity { HOUR, DAY }
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(length = 5)
+    private Granularity granularity;
+
+    @Id
+    @Column(name = "bucket_start")
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date bucketStart;
+
+    @Id
+    @Column(length = 32)
+    private String status;
+
+    @Id
+    private int slot;
+
+    @Column(name = "order_count")
+    private long orderCount;
+
+    private double revenue;
+
+    private long units;
+
+    public static class Key implements Serializable {
+        private Granularity granularity;
+        private Date bucketStart;
+        private String status;
+        private int slot;
+
+        public Key() {}
+
+        public Key(Granularity granularity, Date bucketStart, String status, int slot) {
+            this.granularity = granularity;
+            this.bucketStart = bucketStart;
+            this.status = status;
+            this.slot = slot;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return slot == key.slot && granularity == key.granularity
+                    && Objects.equals(bucketStart, key.bucketStart) && Objects.equals(status, key.status);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(granularity, bucketStart, status, slot);
+        }
+    }
+
+    public Granularity getGranularity() { return granularity; }
+    public void setGranularity(Granularity granularity) { this.granularity = granularity; }
+
+    public Date getBucketStart() { return bucketStart; }
+    public void setBucketStart(Date bucketStart) { this.bucketStart = bucketStart; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public int getSlot() { return slot; }
+    public void setSlot(int slot) { this.slot = slot; }
+
+    public long getOrderCount() { return orderCount; }
+    public void setOrderCount(long orderCount) { this.orderCount = orderCount; }
+
+    public double getRevenue() { return revenue; }
+    public void setRevenue(double revenue) { this.revenue = revenue; }
+
+    public long getUnits() { return units; }
+    public void setUnits(long units) { this.units = units; }
+}
@@ -0,0 +1,73 @@
+package com.example.ecommerce.entity;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+// Running order count and revenue per status, kept up to date by every status change (OrderStatsService).
+// bucket is "ALL" or the order month ("2026-10"); each is split over a few slots picked by order id so
+// concurrent checkouts don't all queue on one row. Reads sum the slots.
+@Entity
+@Table(name = "order_status_stats")
+@IdClass(OrderStatusStats.Key.class)
+public class OrderStatusStats {
+
+    @Id
+    @Column(length = 7)
+    private String bucket;
+
+    @Id
+    @Column(length = 32)
+    private String status;
+
+    @Id
+    private int slot;
+
+    @Column(name = "order_count")
+    private long orderCount;
+
+    private double revenue;
+
+    public static class Key implements Serializable {
+        private String bucket;
+        private String status;
+        private int slot;
+
+        public Key() {}
+
+        public Key(String bucket, String status, int slot) {
+            this.bucket = bucket;
+            this.status = status;
+            this.slot = slot;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return slot == key.slot && Objects.equals(bucket, key.bucket) && Objects.equals(status, key.status);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(bucket, status, slot);
+        }
+    }
+
+    public String getBucket() { return bucket; }
+    public void setBucket(String bucket) { this.bucket = bucket; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public int getSlot() { return slot; }
+    public void setSlot(int slot) { this.slot = slot; }
+
+    public long getOrderCount() { return orderCount; }
+    public void setOrderCount(long orderCount) { this.orderCount = orderCount; }
+
+    public double getRevenue() { return revenue; }
+    public void setRevenue(double revenue) { this.revenue = revenue; }
+}
@@ -1,11 +1,23 @@
 package com.example.ecommerce.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.DynamicUpdate;
 
 @Entity
-@Table(name = "products")
+@DynamicUpdate // only write changed columns; stock is never set by entity saves, only by conditional updates (ProductRepository)
+@Table(name = "products", indexes = {
+        // Keyset pagination seeks on (sort key, id)
+        @Index(name = "idx_products_price_id", columnList = "price, id"),
+        @Index(name = "idx_products_name_id", columnList = "name, id"),
+        @Index(name = "idx_products_category_id", columnList = "category_id, id")
+})
 public class Product {
 
+    // imageStatus values; null means the product has no image
+    public static final String IMAGE_PENDING = "PENDING";
+    public static final String IMAGE_READY = "READY";
+    public static final String IMAGE_FAILED = "FAILED";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private int id;
@@ -14,8 +26,15 @@ public class Product {
     private String description;
     private double price;
 
+    private Integer stock;        // units on hand; null = not tracked (never sells out)
+
+    @Column(name = "category_id")
+    private Integer categoryId;   // null = uncategorized
+
     private String imageUrl;      // ✅ Cloudinary secure URL
     private String imagePublicId; // ✅ Cloudinary public_id (for deletion)
+    private String thumbnailUrl;  // Small rendition used in product listings
+    private String imageStatus;   // PENDING while a new image is being uploaded in the background
 
     public Product() {}
 
@@ -38,9 +57,21 @@ public class Product {
     public double getPrice() { return price; }
     public void setPrice(double price) { this.price = price; }
 
+    public Integer getStock() { return stock; }
+    public void setStock(Integer stock) { this.stock = stock; }
+
+    public Integer getCategoryId() { return categoryId; }
+    public void setCategoryId(Integer categoryId) { this.categoryId = categoryId; }
+
     public String getImageUrl() { return imageUrl; }
     public void setImageUrl(String imageUrl) { this.imageUrl = imageUrl; }
 
     public String getImagePublicId() { return imagePublicId; }
     public void setImagePublicId(String imagePublicId) { this.imagePublicId = imagePublicId; }
+
+    public String getThumbnailUrl() { return thumbnailUrl; }
+    public void setThumbnailUrl(String thumbnailUrl) { this.thumbnailUrl = thumbnailUrl; }
+
+    public String getImageStatus() { return imageStatus; }
+    public void setImageStatus(String imageStatus) { this.imageStatus = imageStatus; }
 }
@@ -0,0 +1,45 @@
+package com.example.ecommerce.repository;
+
+import com.example.ecommerce.entity.CartItem;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+// Single-statement cart line edits. Each bumps the line's version, so an aggregate edit that read the line
+// earlier fails its optimistic check instead of overwriting the change.
+public interface CartItemRepository extends JpaRepository<CartItem, Integer> {
+
+    // Add to an existing line in place; 0 when the cart has no line for the product yet
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE CartItem i SET i.quantity = i.quantity + :quantity, i.version = i.version + 1, "
+            + "i.updatedAt = CURRENT_TIMESTAMP WHERE i.cart.id = :cartId AND i.product.id = :productId")
+    int incrementQuantity(@Param("cartId") int cartId, @Param("productId") int productId,
+                          @Param("quantity") int quantity);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM CartItem i WHERE i.cart.id = :cartId AND i.product.id IN :productIds")
+    int deleteProducts(@Param("cartId") int cartId, @Param("productIds") Collection<Integer> productIds);
+
+    // Next chunk of lines untouched since the cutoff, after the (updatedAt, id) position: rows of [id, cartId, updatedAt]
+    @Query("SELECT i.id, i.cart.id, i.updatedAt FROM CartItem i WHERE i.updatedAt < :cutoff "
+            + "AND (i.updatedAt > :afterTime OR (i.updatedAt = :afterTime AND i.id > :afterId)) "
+            + "ORDER BY i.updatedAt, i.id")
+    List<Object[]> findStale(@Param("cutoff") Date cutoff, @Param("afterTime") Date afterTime,
+                             @Param("afterId") int afterId, Pageable page);
+
+    // Re-checks the cutoff, so a line touched since it was selected survives
+    @Modifying
+    @Query("DELETE FROM CartItem i WHERE i.id IN :ids AND i.updatedAt < :cutoff")
+    int deleteStale(@Param("ids") Collection<Integer> ids, @Param("cutoff") Date cutoff);
+
+    // Start the idle clock for lines that predate updatedAt, a chunk at a time
+    @Modifying
+    @Query(value = "UPDATE cart_item SET updated_at = :now WHERE updated_at IS NULL LIMIT :limit", nativeQuery = true)
+    int stampUntracked(@Param("now") Date now, @Param("limit") int limit);
+}
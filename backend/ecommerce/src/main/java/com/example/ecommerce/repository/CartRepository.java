@@ -2,6 +2,58 @@ package com.example.ecommerce.repository;
 
 import com.example.ecommerce.entity.Cart;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 public interface CartRepository extends JpaRepository<Cart, Integer> {
+
+    // Cart with its user, items and their products in one statement, for rendering or editing a whole cart
+    @Query("SELECT c FROM Cart c JOIN FETCH c.user LEFT JOIN FETCH c.items i LEFT JOIN FETCH i.product WHERE c.id = :id")
+    Optional<Cart> findWithItemsById(@Param("id") Integer id);
+
+    // The totals columns alone; one row, no items. Either value is null until first computed.
+    @Query("SELECT c.itemCount, c.subtotal FROM Cart c WHERE c.id = :id")
+    List<Object[]> findTotals(@Param("id") int id);
+
+    // Cart totals are kept up to date by the statements below, run in the same transaction as the line change.
+    // Each bumps the cart version, so an aggregate edit that raced with it is retried.
+
+    // Hot path: a known quantity of one product was added. The price is read from the product row by the
+    // statement itself, never from a cached copy that may predate a price change. A null total stays null
+    // until recomputed.
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Cart c SET c.itemCount = c.itemCount + :quantity, "
+            + "c.subtotal = c.subtotal + :quantity * (SELECT p.price FROM Product p WHERE p.id = :productId), "
+            + "c.version = c.version + 1 WHERE c.id = :id")
+    int addToTotals(@Param("id") int id, @Param("productId") int productId, @Param("quantity") int quantity);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Cart c SET "
+            + "c.itemCount = (SELECT COALESCE(SUM(i.quantity), 0) FROM CartItem i WHERE i.cart.id = c.id), "
+            + "c.subtotal = (SELECT COALESCE(SUM(i.quantity * p.price), 0) FROM CartItem i JOIN i.product p "
+            + "WHERE i.cart.id = c.id), "
+            + "c.version = c.version + 1 WHERE c.id = :id")
+    int recomputeTotals(@Param("id") int id);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Cart c SET "
+            + "c.itemCount = (SELECT COALESCE(SUM(i.quantity), 0) FROM CartItem i WHERE i.cart.id = c.id), "
+            + "c.subtotal = (SELECT COALESCE(SUM(i.quantity * p.price), 0) FROM CartItem i JOIN i.product p "
+            + "WHERE i.cart.id = c.id), "
+            + "c.version = c.version + 1 WHERE c.id IN :ids")
+    int recomputeTotalsIn(@Param("ids") Collection<Integer> ids);
+
+    // After a price change, for every cart holding the product (flushes first so it reads the new price)
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Cart c SET "
+            + "c.subtotal = (SELECT COALESCE(SUM(i.quantity * p.price), 0) FROM CartItem i JOIN i.product p "
+            + "WHERE i.cart.id = c.id), "
+            + "c.version = c.version + 1 "
+            + "WHERE c.id IN (SELECT i.cart.id FROM CartItem i WHERE i.product.id = :productId)")
+    int recomputeSubtotalsForProduct(@Param("productId") int productId);
 }
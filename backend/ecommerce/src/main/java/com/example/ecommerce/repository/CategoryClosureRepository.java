@@ -0,0 +1,22 @@
+package com.example.ecommerce.repository;
+
+import com.example.ecommerce.entity.CategoryClosure;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface CategoryClosureRepository extends JpaRepository<CategoryClosure, CategoryClosure.Key> {
+
+    // Link a new category under its parent: every ancestor of the parent (the parent included) becomes an
+    // ancestor of the child, one level deeper
+    @Modifying
+    @Query(value = "INSERT INTO category_closure (ancestor_id, descendant_id, depth) "
+            + "SELECT ancestor_id, :childId, depth + 1 FROM category_closure WHERE descendant_id = :parentId",
+            nativeQuery = true)
+    int linkToParent(@Param("childId") int childId, @Param("parentId") int parentId);
+
+    @Modifying
+    @Query("DELETE FROM CategoryClosure cc WHERE cc.descendantId = :categoryId")
+    int deleteByDescendant(@Param("categoryId") int categoryId);
+}
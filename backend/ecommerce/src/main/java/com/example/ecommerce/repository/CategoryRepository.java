@@ -0,0 +1,18 @@
+package com.example.ecommerce.repository;
+
+import com.example.ecommerce.entity.Category;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface CategoryRepository extends JpaRepository<Category, Integer> {
+
+    boolean existsByParentId(Integer parentId);
+
+    // Adjust the subtree count of a category and all of its ancestors in one statement
+    @Modifying
+    @Query("UPDATE Category c SET c.productCount = c.productCount + :delta WHERE c.id IN "
+            + "(SELECT cc.ancestorId FROM CategoryClosure cc WHERE cc.descendantId = :categoryId)")
+    int addToProductCounts(@Param("categoryId") int categoryId, @Param("delta") long delta);
+}
@@ -1,8 +1,43 @@
 package com.example.ecommerce.repository;
 
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Stream;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import com.example.ecommerce.entity.OrderItem;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+
 public interface OrderItemRepository extends JpaRepository<OrderItem, Integer> {
-}
\ No newline at end of file
+
+    // Number of order lines per product, used as its popularity: rows of [productId, count]
+    @Query("SELECT oi.product.id, COUNT(oi) FROM OrderItem oi WHERE oi.product IS NOT NULL GROUP BY oi.product.id")
+    List<Object[]> countOrderLinesByProduct();
+
+    // Units ordered per hour of day and order status for orders placed in [from, to): rows of [hour, status, units]
+    @Query("SELECT EXTRACT(HOUR FROM o.orderDate), o.status, SUM(oi.quantity) FROM OrderItem oi JOIN oi.order o "
+            + "WHERE o.orderDate >= :from AND o.orderDate < :to "
+            + "GROUP BY EXTRACT(HOUR FROM o.orderDate), o.status")
+    List<Object[]> sumUnitsByHourAndStatusPlacedBetween(@Param("from") Date from, @Param("to") Date to);
+
+    // Forward-only cursor of order lines placed in [from, to) for finance exports, oldest order first, as
+    // scalar rows so nothing lands in the persistence context: [orderId, orderDate, status, userId, orderTotal,
+    // razorpayOrderId, razorpayPaymentId, itemId, productId, productName, quantity, unitPrice].
+    // Streams like ProductRepository.streamAllOrderedById; consume inside a transaction and close.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT o.id, o.orderDate, o.status, o.user.id, o.totalPrice, o.razorpayOrderId, o.razorpayPaymentId, "
+            + "oi.id, p.id, p.name, oi.quantity, oi.price "
+            + "FROM OrderItem oi JOIN oi.order o LEFT JOIN oi.product p "
+            + "WHERE o.orderDate >= :from AND o.orderDate < :to ORDER BY o.orderDate, o.id")
+    Stream<Object[]> streamLinesPlacedBetween(@Param("from") Date from, @Param("to") Date to);
+}
@@ -1,54 +1,56 @@
 package com.example.ecommerce.repository;
 
 import com.example.ecommerce.entity.Order;
-import com.example.ecommerce.entity.User;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface OrderRepository extends JpaRepository<Order, Integer> {
+public interface OrderRepository extends JpaRepository<Order, Integer>, JpaSpecificationExecutor<Order> {
 	
 	Order findByRazorpayOrderId(String razorpayOrderId);
-	
-    // Find all orders ordered by date (newest first)
-    List<Order> findAllByOrderByOrderDateDesc();
-
-    // Find orders by status
-    List<Order> findByStatusOrderByOrderDateDesc(String status);
-
-    // Find orders by user
-    List<Order> findByUserOrderByOrderDateDesc(User user);
 
-    // Count orders by status
-    long countByStatus(String status);
+    // Methods whose results are rendered as OrderDTOs load items and products with the orders, so a listing is
+    // one statement instead of one per order and per item. The user stays a proxy; only its id is read.
 
-    // Find orders by status list (for revenue calculation)
-    List<Order> findByStatusIn(List<String> statuses);
+    @EntityGraph(attributePaths = {"orderItems", "orderItems.product"})
+    Optional<Order> findWithItemsById(int id);
 
-    // Find orders after a certain date with specific statuses
-    List<Order> findByOrderDateAfterAndStatusIn(Date date, List<String> statuses);
+    // Second step of a paged listing: the page's ids are found first (a LIMIT can't be combined with
+    // fetching a collection), then loaded here with their items. Result order is unspecified.
+    @EntityGraph(attributePaths = {"orderItems", "orderItems.product"})
+    List<Order> findWithItemsByIdIn(Collection<Integer> ids);
 
-    // Custom queries for advanced statistics
-    @Query("SELECT COUNT(o) FROM Order o WHERE o.orderDate >= ?1")
-    long countOrdersAfterDate(Date date);
+    // Compare-and-set on the status; 0 rows means another request changed it first. The row stays locked until
+    // the caller's transaction ends.
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Order o SET o.status = :newStatus WHERE o.id = :id AND o.status = :oldStatus")
+    int updateStatusIf(@Param("id") int id, @Param("oldStatus") String oldStatus, @Param("newStatus") String newStatus);
 
-    @Query("SELECT SUM(o.totalPrice) FROM Order o WHERE o.status IN ?1")
-    Double getTotalRevenueByStatuses(List<String> statuses);
+    // A user's order count and spend per status: rows of [status, count, sum of totals]
+    @Query("SELECT o.status, COUNT(o), SUM(o.totalPrice) FROM Order o WHERE o.user.id = :userId GROUP BY o.status")
+    List<Object[]> summarizeByStatusForUser(@Param("userId") long userId);
 
-    @Query("SELECT SUM(o.totalPrice) FROM Order o WHERE o.orderDate >= ?1 AND o.status IN ?2")
-    Double getRevenueAfterDateByStatuses(Date date, List<String> statuses);
+    // Order count and sum of totals per status for orders placed in [from, to): rows of [status, count, sum]
+    @Query("SELECT o.status, COUNT(o), SUM(o.totalPrice) FROM Order o "
+            + "WHERE o.orderDate >= :from AND o.orderDate < :to GROUP BY o.status")
+    List<Object[]> summarizeByStatusPlacedBetween(@Param("from") Date from, @Param("to") Date to);
 
-    // Find recent orders (last N orders)
-    List<Order> findTop10ByOrderByOrderDateDesc();
+    @Query("SELECT MIN(o.orderDate) FROM Order o")
+    Date findFirstOrderDate();
 
-    // Find orders by date range
-    List<Order> findByOrderDateBetweenOrderByOrderDateDesc(Date startDate, Date endDate);
-
-    // Find orders by user and status
-    List<Order> findByUserAndStatusOrderByOrderDateDesc(User user, String status);
+    // Per hour of day and status for orders placed in [from, to) (at most a day): rows of [hour, status, count, sum]
+    @Query("SELECT EXTRACT(HOUR FROM o.orderDate), o.status, COUNT(o), SUM(o.totalPrice) FROM Order o "
+            + "WHERE o.orderDate >= :from AND o.orderDate < :to "
+            + "GROUP BY EXTRACT(HOUR FROM o.orderDate), o.status")
+    List<Object[]> summarizeByHourAndStatusPlacedBetween(@Param("from") Date from, @Param("to") Date to);
 }
-
@@ -0,0 +1,49 @@
+package com.example.ecommerce.repository;
+
+import com.example.ecommerce.entity.OrderRollup;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Date;
+import java.util.List;
+
+public interface OrderRollupRepository extends JpaRepository<OrderRollup, OrderRollup.Key> {
+
+    // Apply a delta to one slot of a bucket, creating it on first use (see OrderStatusStatsRepository.add)
+    @Modifying
+    @Query(value = "INSERT INTO order_rollups (granularity, bucket_start, status, slot, order_count, revenue, units) "
+            + "VALUES (:granularity, :bucketStart, :status, :slot, :count, :revenue, :units) "
+            + "ON DUPLICATE KEY UPDATE order_count = order_count + :count, revenue = revenue + :revenue, "
+            + "units = units + :units",
+            nativeQuery = true)
+    int add(@Param("granularity") String granularity, @Param("bucketStart") Date bucketStart,
+            @Param("status") String status, @Param("slot") int slot, @Param("count") long count,
+            @Param("revenue") double revenue, @Param("units") long units);
+
+    // Buckets starting in [from, to), slots summed, optionally one status (null = all):
+    // rows of [bucketStart, status, orderCount, revenue, units], oldest first
+    @Query("SELECT r.bucketStart, r.status, SUM(r.orderCount), SUM(r.revenue), SUM(r.units) FROM OrderRollup r "
+            + "WHERE r.granularity = :granularity AND r.bucketStart >= :from AND r.bucketStart < :to "
+            + "AND (:status IS NULL OR r.status = :status) "
+            + "GROUP BY r.bucketStart, r.status ORDER BY r.bucketStart, r.status")
+    List<Object[]> findSeries(@Param("granularity") OrderRollup.Granularity granularity, @Param("from") Date from,
+                              @Param("to") Date to, @Param("status") String status);
+
+    // Holds off deltas to buckets in [from, to) until the caller commits; the range is a key prefix, so slots
+    // that don't exist yet wait too
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM OrderRollup r WHERE r.granularity = :granularity "
+            + "AND r.bucketStart >= :from AND r.bucketStart < :to")
+    List<OrderRollup> lockRange(@Param("granularity") OrderRollup.Granularity granularity,
+                                @Param("from") Date from, @Param("to") Date to);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM OrderRollup r WHERE r.granularity = :granularity "
+            + "AND r.bucketStart >= :from AND r.bucketStart < :to")
+    int deleteRange(@Param("granularity") OrderRollup.Granularity granularity,
+                    @Param("from") Date from, @Param("to") Date to);
+}
@@ -0,0 +1,65 @@
+package com.example.ecommerce.repository;
+
+import java.util.Date;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import com.example.ecommerce.dto.OrderCursor;
+import com.example.ecommerce.entity.Order;
+
+import jakarta.persistence.criteria.Path;
+
+// Reusable query fragments for order listings. Listings run newest first on (orderDate, id); see the
+// indexes on Order for the filter combinations they are meant to seek on.
+public final class OrderSpecifications {
+
+    private OrderSpecifications() {
+    }
+
+    // Keyset predicate for descending order: (orderDate < last) OR (orderDate = last AND id < lastId)
+    public static Specification<Order> before(OrderCursor cursor) {
+        return (root, query, cb) -> {
+            Path<Date> orderDate = root.get("orderDate");
+            Date last = cursor.getLastOrderDate();
+            return cb.or(cb.lessThan(orderDate, last),
+                    cb.and(cb.equal(orderDate, last), cb.lessThan(root.get("id"), cursor.getLastId())));
+        };
+    }
+
+    public static Specification<Order> hasStatus(String status) {
+        return (root, query, cb) -> cb.equal(root.get("status"), status);
+    }
+
+    // Compares the user_id column directly, without joining users
+    public static Specification<Order> forUser(long userId) {
+        return (root, query, cb) -> cb.equal(root.get("user").get("id"), userId);
+    }
+
+    // Order date band, from inclusive and to exclusive; either bound may be null
+    public static Specification<Order> placedBetween(Date from, Date to) {
+        return (root, query, cb) -> {
+            Path<Date> orderDate = root.get("orderDate");
+            if (from != null && to != null) {
+                return cb.and(cb.greaterThanOrEqualTo(orderDate, from), cb.lessThan(orderDate, to));
+            }
+            if (from != null) {
+                return cb.greaterThanOrEqualTo(orderDate, from);
+            }
+            return to != null ? cb.lessThan(orderDate, to) : null;
+        };
+    }
+
+    // Total amount band; either bound may be null
+    public static Specification<Order> totalBetween(Double minTotal, Double maxTotal) {
+        return (root, query, cb) -> {
+            Path<Double> total = root.get("totalPrice");
+            if (minTotal != null && maxTotal != null) {
+                return cb.between(total, minTotal, maxTotal);
+            }
+            if (minTotal != null) {
+                return cb.greaterThanOrEqualTo(total, minTotal);
+            }
+            return maxTotal != null ? cb.lessThanOrEqualTo(total, maxTotal) : null;
+        };
+    }
+}
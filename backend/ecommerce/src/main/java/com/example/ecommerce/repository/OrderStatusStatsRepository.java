@@ -0,0 +1,42 @@
+package com.example.ecommerce.repository;
+
+import com.example.ecommerce.entity.OrderStatusStats;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface OrderStatusStatsRepository extends JpaRepository<OrderStatusStats, OrderStatusStats.Key> {
+
+    // Apply a delta to one slot, creating it on first use; a single statement, so concurrent deltas never lose updates
+    @Modifying
+    @Query(value = "INSERT INTO order_status_stats (bucket, status, slot, order_count, revenue) "
+            + "VALUES (:bucket, :status, :slot, :count, :revenue) "
+            + "ON DUPLICATE KEY UPDATE order_count = order_count + :count, revenue = revenue + :revenue",
+            nativeQuery = true)
+    int add(@Param("bucket") String bucket, @Param("status") String status, @Param("slot") int slot,
+            @Param("count") long count, @Param("revenue") double revenue);
+
+    // Rows of [status, orderCount, revenue] for one bucket, slots summed
+    @Query("SELECT s.status, SUM(s.orderCount), SUM(s.revenue) FROM OrderStatusStats s "
+            + "WHERE s.bucket = :bucket GROUP BY s.status")
+    List<Object[]> sumByStatus(@Param("bucket") String bucket);
+
+    // Rows of [status, orderCount, revenue] over every month bucket, i.e. what the ALL bucket should hold
+    @Query("SELECT s.status, SUM(s.orderCount), SUM(s.revenue) FROM OrderStatusStats s "
+            + "WHERE s.bucket <> 'ALL' GROUP BY s.status")
+    List<Object[]> sumMonthsByStatus();
+
+    // Holds off deltas to the bucket until the caller commits (bucket is the key prefix, so new slots wait too)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM OrderStatusStats s WHERE s.bucket = :bucket")
+    List<OrderStatusStats> lockBucket(@Param("bucket") String bucket);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM OrderStatusStats s WHERE s.bucket = :bucket")
+    int deleteBucket(@Param("bucket") String bucket);
+}
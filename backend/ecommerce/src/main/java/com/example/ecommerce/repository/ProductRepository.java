@@ -1,9 +1,72 @@
 package com.example.ecommerce.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+
+import java.util.Optional;
+import java.util.stream.Stream;
 
 import com.example.ecommerce.entity.Product;
 
-public interface ProductRepository extends JpaRepository<Product, Integer> {
-}
+public interface ProductRepository extends JpaRepository<Product, Integer>, JpaSpecificationExecutor<Product> {
+
+    // For edits and deletes that adjust counters from the row's current values (category product counts):
+    // a concurrent edit or delete of the same product waits until this transaction ends
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Product p WHERE p.id = :id")
+    Optional<Product> findLockedById(@Param("id") int id);
+
+    // Targeted updates from the background image worker, so they never overwrite concurrent edits to other fields
+    @Modifying
+    @Transactional
+    @Query("UPDATE Product p SET p.imageUrl = :url, p.thumbnailUrl = :thumbnailUrl, p.imagePublicId = :publicId, "
+            + "p.imageStatus = :status WHERE p.id = :id")
+    int updateImage(@Param("id") int id, @Param("url") String url, @Param("thumbnailUrl") String thumbnailUrl,
+                    @Param("publicId") String publicId, @Param("status") String status);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Product p SET p.imageStatus = :status WHERE p.id = :id")
+    int updateImageStatus(@Param("id") int id, @Param("status") String status);
 
+    // Conditional decrement: takes the row lock only for this statement and fails (0 rows) instead of
+    // overselling. Untracked (null) stock never matches, callers skip those products.
+    @Modifying
+    @Query("UPDATE Product p SET p.stock = p.stock - :quantity WHERE p.id = :id AND p.stock >= :quantity")
+    int reserveStock(@Param("id") int id, @Param("quantity") int quantity);
+
+    @Modifying
+    @Query("UPDATE Product p SET p.stock = p.stock + :quantity WHERE p.id = :id AND p.stock IS NOT NULL")
+    int releaseStock(@Param("id") int id, @Param("quantity") int quantity);
+
+    // Admin restock / write-off relative to whatever checkouts have left; 0 rows when untracked or it would go negative
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Product p SET p.stock = p.stock + :delta WHERE p.id = :id AND p.stock + :delta >= 0")
+    int adjustStock(@Param("id") int id, @Param("delta") int delta);
+
+    // Set an absolute level (null = stop tracking) only if stock is still what the admin saw; 0 rows otherwise
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Product p SET p.stock = :stock WHERE p.id = :id "
+            + "AND (p.stock = :expected OR (p.stock IS NULL AND :expected IS NULL))")
+    int replaceStock(@Param("id") int id, @Param("expected") Integer expected, @Param("stock") Integer stock);
+
+    // Forward-only cursor over the whole catalog for exports. Integer.MIN_VALUE makes MySQL Connector/J stream
+    // rows instead of buffering the result set; must be consumed inside a transaction and closed.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT p FROM Product p ORDER BY p.id")
+    Stream<Product> streamAllOrderedById();
+}
@@ -0,0 +1,74 @@
+package com.example.ecommerce.repository;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import com.example.ecommerce.dto.ProductCursor;
+import com.example.ecommerce.entity.CategoryClosure;
+import com.example.ecommerce.entity.Product;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+
+// Reusable query fragments for product listings
+public final class ProductSpecifications {
+
+    private ProductSpecifications() {
+    }
+
+    // Keyset predicate: only rows strictly after the cursor position in (sort key, id) order
+    public static Specification<Product> after(ProductCursor cursor) {
+        return (root, query, cb) -> {
+            Path<Integer> id = root.get("id");
+            Predicate idAfter = cursor.isDescending()
+                    ? cb.lessThan(id, cursor.getLastId())
+                    : cb.greaterThan(id, cursor.getLastId());
+
+            switch (cursor.getSort()) {
+                case "price":
+                    Path<Double> price = root.get("price");
+                    return keyset(cb, price, Double.valueOf(cursor.getLastValue()), idAfter, cursor.isDescending());
+                case "name":
+                    Path<String> name = root.get("name");
+                    return keyset(cb, name, cursor.getLastValue(), idAfter, cursor.isDescending());
+                default:
+                    return idAfter;
+            }
+        };
+    }
+
+    // Products in a category or any of its descendants: category_id IN (closure rows under the ancestor)
+    public static Specification<Product> inCategoryTree(int categoryId) {
+        return (root, query, cb) -> {
+            Subquery<Integer> descendants = query.subquery(Integer.class);
+            Root<CategoryClosure> closure = descendants.from(CategoryClosure.class);
+            descendants.select(closure.get("descendantId"))
+                    .where(cb.equal(closure.get("ancestorId"), categoryId));
+            return root.get("categoryId").in(descendants);
+        };
+    }
+
+    // Price band filter; either bound may be null
+    public static Specification<Product> priceBetween(Double minPrice, Double maxPrice) {
+        return (root, query, cb) -> {
+            Path<Double> price = root.get("price");
+            if (minPrice != null && maxPrice != null) {
+                return cb.between(price, minPrice, maxPrice);
+            }
+            if (minPrice != null) {
+                return cb.greaterThanOrEqualTo(price, minPrice);
+            }
+            return maxPrice != null ? cb.lessThanOrEqualTo(price, maxPrice) : null;
+        };
+    }
+
+    // (key > value) OR (key = value AND id > lastId), mirrored for descending order
+    private static <T extends Comparable<? super T>> Predicate keyset(CriteriaBuilder cb, Expression<T> key, T value,
+                                                                     Predicate idAfter, boolean descending) {
+        Predicate beyond = descending ? cb.lessThan(key, value) : cb.greaterThan(key, value);
+        return cb.or(beyond, cb.and(cb.equal(key, value), idAfter));
+    }
+}
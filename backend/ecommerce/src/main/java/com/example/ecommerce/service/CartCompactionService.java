@@ -0,0 +1,126 @@
+package com.example.ecommerce.service;
+
+import com.example.ecommerce.repository.CartItemRepository;
+import com.example.ecommerce.repository.CartRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// Deletes cart lines nobody has touched for cart.compaction.idle-days. Works in small chunks, each its own
+// short transaction, with a pause in between, so live cart traffic never waits long on its locks. Carts held
+// by a write-behind cart store are left alone: their DB rows are not the current contents.
+@Service
+@ConditionalOnProperty(name = "cart.compaction.enabled", havingValue = "true", matchIfMissing = true)
+public class CartCompactionService {
+
+    private final CartItemRepository cartItemRepository;
+    private final CartRepository cartRepository;
+    private final CartStore cartStore;
+    private final TransactionTemplate transactionTemplate;
+    private final long idleMillis;
+    private final int batchSize;
+    private final long pauseMillis;
+
+    public CartCompactionService(CartItemRepository cartItemRepository, CartRepository cartRepository,
+                                 CartStore cartStore, PlatformTransactionManager transactionManager,
+                                 @Value("${cart.compaction.idle-days:30}") long idleDays,
+                                 @Value("${cart.compaction.batch-size:500}") int batchSize,
+                                 @Value("${cart.compaction.pause-ms:200}") long pauseMillis) {
+        this.cartItemRepository = cartItemRepository;
+        this.cartRepository = cartRepository;
+        this.cartStore = cartStore;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.idleMillis = TimeUnit.DAYS.toMillis(idleDays);
+        this.batchSize = Math.max(1, batchSize);
+        this.pauseMillis = pauseMillis;
+    }
+
+    @Scheduled(initialDelayString = "${cart.compaction.initial-delay-ms:300000}",
+               fixedDelayString = "${cart.compaction.interval-ms:3600000}")
+    public void compact() {
+        long started = System.currentTimeMillis();
+        int stamped = stampUntrackedLines();
+        Date cutoff = new Date(started - idleMillis);
+
+        int deleted = 0;
+        int skipped = 0;
+        Set<Integer> cartsTouched = new HashSet<>();
+        Date afterTime = new Date(0);
+        int afterId = 0;
+        while (!Thread.currentThread().isInterrupted()) {
+            List<Object[]> rows = cartItemRepository.findStale(cutoff, afterTime, afterId, PageRequest.of(0, batchSize));
+            if (rows.isEmpty()) {
+                break;
+            }
+            List<Integer> itemIds = new ArrayList<>();
+            Set<Integer> cartIds = new HashSet<>();
+            for (Object[] row : rows) {
+                int cartId = (Integer) row[1];
+                if (cartStore.isResident(cartId)) {
+                    skipped++;
+                } else {
+                    itemIds.add((Integer) row[0]);
+                    cartIds.add(cartId);
+                }
+            }
+            Object[] last = rows.get(rows.size() - 1);
+            afterId = (Integer) last[0];
+            afterTime = (Date) last[2];
+
+            if (!itemIds.isEmpty()) {
+                Integer removed = transactionTemplate.execute(status -> {
+                    int count = cartItemRepository.deleteStale(itemIds, cutoff);
+                    if (count > 0) {
+                        cartRepository.recomputeTotalsIn(cartIds);
+                    }
+                    return count;
+                });
+                deleted += removed;
+                if (removed > 0) {
+                    cartsTouched.addAll(cartIds);
+                }
+            }
+            if (rows.size() < batchSize || !pause()) {
+                break;
+            }
+        }
+
+        System.out.println("Cart compaction: deleted " + deleted + " stale cart items from " + cartsTouched.size()
+                + " carts (skipped " + skipped + " in memory, stamped " + stamped + " untracked) in "
+                + (System.currentTimeMillis() - started) + " ms");
+    }
+
+    // Lines written before updatedAt existed have no timestamp; give them one so they age out from now on
+    private int stampUntrackedLines() {
+        int stamped = 0;
+        Date now = new Date();
+        while (true) {
+            Integer count = transactionTemplate.execute(status -> cartItemRepository.stampUntracked(now, batchSize));
+            stamped += count;
+            if (count < batchSize || !pause()) {
+                return stamped;
+            }
+        }
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(pauseMillis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
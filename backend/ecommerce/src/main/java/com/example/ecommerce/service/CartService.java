@@ -2,16 +2,19 @@ package com.example.ecommerce.service;
 
 import com.example.ecommerce.dto.CartDTO;
 import com.example.ecommerce.dto.CartItemDTO;
+import com.example.ecommerce.dto.CartOperationRequest;
+import com.example.ecommerce.dto.CartSummaryDTO;
 import com.example.ecommerce.entity.Cart;
-import com.example.ecommerce.entity.CartItem;
 import com.example.ecommerce.entity.Product;
 import com.example.ecommerce.entity.User;
 import com.example.ecommerce.repository.CartRepository;
-import com.example.ecommerce.repository.ProductRepository;
 import com.example.ecommerce.repository.UserRepository;
 
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Set;
 
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -19,16 +22,22 @@ import org.springframework.transaction.annotation.Transactional;
 @Service
 public class CartService {
 
+    // Upper bound on operations in one batch edit
+    public static final int MAX_BATCH_OPERATIONS = 200;
+
     private final CartRepository cartRepository;
-    private final ProductRepository productRepository;
     private final UserRepository userRepository;
+    private final ProductService productService;
+    private final CartStore cartStore;
 
     public CartService(CartRepository cartRepository,
-                       ProductRepository productRepository,
-                       UserRepository userRepository) {
+                       UserRepository userRepository,
+                       ProductService productService,
+                       CartStore cartStore) {
         this.cartRepository = cartRepository;
-        this.productRepository = productRepository;
         this.userRepository = userRepository;
+        this.productService = productService;
+        this.cartStore = cartStore;
     }
 
     @Transactional
@@ -37,7 +46,7 @@ public class CartService {
                 .orElseThrow(() -> new RuntimeException("User not found with ID: " + userId));
 
         if (user.getCart() != null) {
-            return new CartDTO(user.getCart());
+            return cartStore.getCart(user.getCart().getId());
         }
 
         Cart cart = new Cart();
@@ -47,61 +56,76 @@ public class CartService {
         return new CartDTO(cartRepository.save(cart));
     }
 
-    @Transactional
     public CartDTO addProductToCart(int cartId, int productId, int quantity) {
-        Cart cart = cartRepository.findById(cartId)
-                .orElseThrow(() -> new RuntimeException("Cart not found with ID: " + cartId));
-
-        Product product = productRepository.findById(productId)
+        // Served from the product cache; only the id is needed for the item's foreign key
+        Product product = productService.findProductById(productId)
                 .orElseThrow(() -> new RuntimeException("Product not found with ID: " + productId));
 
-        // Check if product already in cart
-        CartItem existingItem = cart.getItems().stream()
-                .filter(i -> i.getProduct().getId() == productId)
-                .findFirst()
-                .orElse(null);
-
-        if (existingItem != null) {
-            existingItem.setQuantity(existingItem.getQuantity() + quantity);
-        } else {
-            CartItem item = new CartItem();
-            item.setProduct(product);
-            item.setQuantity(quantity);
-            cart.addItem(item);
-        }
-
-        return new CartDTO(cartRepository.save(cart));
+        return cartStore.addProduct(cartId, product, quantity);
     }
 
-    @Transactional
-    public CartDTO removeProductFromCart(int cartId, int productId) {
-        Cart cart = cartRepository.findById(cartId)
-                .orElseThrow(() -> new RuntimeException("Cart not found with ID: " + cartId));
+    // Apply a list of add / remove / set-quantity operations in one go and return the resulting cart.
+    // Everything is validated up front so a bad operation leaves the cart untouched.
+    public CartDTO applyOperations(int cartId, List<CartOperationRequest> operations) {
+        if (operations == null || operations.isEmpty()) {
+            throw new IllegalArgumentException("No cart operations given");
+        }
+        if (operations.size() > MAX_BATCH_OPERATIONS) {
+            throw new IllegalArgumentException("At most " + MAX_BATCH_OPERATIONS + " cart operations per request");
+        }
 
-        boolean removed = cart.getItems().removeIf(item -> item.getProduct().getId() == productId);
+        Set<Integer> neededProductIds = new LinkedHashSet<>();
+        for (CartOperationRequest operation : operations) {
+            if (operation == null || operation.getType() == null || operation.getProductId() == null) {
+                throw new IllegalArgumentException("Each cart operation needs a type and a productId");
+            }
+            switch (operation.getType()) {
+                case ADD -> {
+                    if (operation.getQuantity() == null || operation.getQuantity() <= 0) {
+                        throw new IllegalArgumentException("ADD needs a positive quantity");
+                    }
+                    neededProductIds.add(operation.getProductId());
+                }
+                case SET -> {
+                    if (operation.getQuantity() == null || operation.getQuantity() < 0) {
+                        throw new IllegalArgumentException("SET needs a quantity of 0 or more");
+                    }
+                    if (operation.getQuantity() > 0) {
+                        neededProductIds.add(operation.getProductId());
+                    }
+                }
+                case REMOVE -> { }
+            }
+        }
 
-        if (!removed) {
-            throw new RuntimeException("Product not found in cart with ID: " + productId);
+        // Served from the product cache
+        Map<Integer, Product> products = new HashMap<>();
+        for (Product product : productService.findProductsByIds(List.copyOf(neededProductIds))) {
+            products.put(product.getId(), product);
+        }
+        for (Integer productId : neededProductIds) {
+            if (!products.containsKey(productId)) {
+                throw new IllegalArgumentException("Product not found with ID: " + productId);
+            }
         }
 
-        return new CartDTO(cartRepository.save(cart));
+        return cartStore.applyOperations(cartId, operations, products);
+    }
+
+    public CartDTO removeProductFromCart(int cartId, int productId) {
+        return cartStore.removeProduct(cartId, productId);
     }
 
-    @Transactional(readOnly = true)
     public List<CartItemDTO> getCartItems(int cartId) {
-        Cart cart = cartRepository.findById(cartId)
-                .orElseThrow(() -> new RuntimeException("Cart not found with ID: " + cartId));
+        return cartStore.getItems(cartId);
+    }
 
-        return cart.getItems().stream()
-                   .map(CartItemDTO::new)
-                   .collect(Collectors.toList());
+    public CartSummaryDTO getCartSummary(int cartId) {
+        return cartStore.getSummary(cartId);
     }
 
-    @Transactional(readOnly = true)
     public CartDTO getCartById(int cartId) {
-        Cart cart = cartRepository.findById(cartId)
-                .orElseThrow(() -> new RuntimeException("Cart not found with ID: " + cartId));
-        return new CartDTO(cart);
+        return cartStore.getCart(cartId);
     }
 
     @Transactional
@@ -112,6 +136,6 @@ public class CartService {
         if (user.getCart() == null) {
             return createCart(userId);
         }
-        return new CartDTO(user.getCart());
+        return cartStore.getCart(user.getCart().getId());
     }
 }
@@ -0,0 +1,44 @@
+package com.example.ecommerce.service;
+
+import com.example.ecommerce.dto.CartDTO;
+import com.example.ecommerce.dto.CartItemDTO;
+import com.example.ecommerce.dto.CartOperationRequest;
+import com.example.ecommerce.dto.CartSummaryDTO;
+import com.example.ecommerce.entity.Product;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Where cart contents are read and written. Selected with cart.store=db|memory:
+// "db" works on the Cart aggregate directly, "memory" keeps active carts in memory and writes them behind.
+public interface CartStore {
+
+    CartDTO getCart(int cartId);
+
+    List<CartItemDTO> getItems(int cartId);
+
+    // Item count and subtotal without loading the lines
+    CartSummaryDTO getSummary(int cartId);
+
+    // Add quantity of a product, merging with an existing line
+    CartDTO addProduct(int cartId, Product product, int quantity);
+
+    CartDTO removeProduct(int cartId, int productId);
+
+    // Apply validated operations in order, all or nothing; products holds every product they add or set
+    CartDTO applyOperations(int cartId, List<CartOperationRequest> operations, Map<Integer, Product> products);
+
+    // Drop lines for the given products if present (e.g. after they were paid for)
+    void removeProducts(int cartId, Collection<Integer> productIds);
+
+    // Make the DB copy of the cart current, within the caller's transaction if there is one
+    void flush(int cartId);
+
+    // True while the store holds the authoritative contents of the cart in memory, so its DB rows may lag
+    boolean isResident(int cartId);
+
+    // Map cart item ids as shown to clients to product ids
+    Set<Integer> productIdsForItems(int cartId, Collection<Integer> cartItemIds);
+}
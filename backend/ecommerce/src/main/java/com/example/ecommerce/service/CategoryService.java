@@ -0,0 +1,110 @@
+package com.example.ecommerce.service;
+
+import com.example.ecommerce.dto.CategoryDTO;
+import com.example.ecommerce.entity.Category;
+import com.example.ecommerce.entity.CategoryClosure;
+import com.example.ecommerce.repository.CategoryClosureRepository;
+import com.example.ecommerce.repository.CategoryRepository;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+// Category hierarchy stored as a closure table, with per-category subtree product counts kept up to date
+// by product writes so navigation never has to count products
+@Service
+public class CategoryService {
+
+    private final CategoryRepository categoryRepository;
+    private final CategoryClosureRepository closureRepository;
+
+    public CategoryService(CategoryRepository categoryRepository, CategoryClosureRepository closureRepository) {
+        this.categoryRepository = categoryRepository;
+        this.closureRepository = closureRepository;
+    }
+
+    @Transactional
+    public Category createCategory(String name, Integer parentId) {
+        if (name == null || name.isBlank()) {
+            throw new IllegalArgumentException("Category name is required");
+        }
+        if (parentId != null && !categoryRepository.existsById(parentId)) {
+            throw new IllegalArgumentException("Parent category not found: " + parentId);
+        }
+        Category saved = categoryRepository.save(new Category(name.trim(), parentId));
+
+        CategoryClosure self = new CategoryClosure();
+        self.setAncestorId(saved.getId());
+        self.setDescendantId(saved.getId());
+        self.setDepth(0);
+        closureRepository.save(self);
+        if (parentId != null) {
+            closureRepository.flush();
+            closureRepository.linkToParent(saved.getId(), parentId);
+        }
+        return saved;
+    }
+
+    // Only empty leaf categories can be removed, so counts and closure rows never go stale
+    @Transactional
+    public void deleteCategory(int id) {
+        Category category = categoryRepository.findById(id)
+                .orElseThrow(() -> new NoSuchElementException("Category not found with ID: " + id));
+        if (categoryRepository.existsByParentId(id)) {
+            throw new IllegalStateException("Category has sub-categories");
+        }
+        if (category.getProductCount() > 0) {
+            throw new IllegalStateException("Category still has products");
+        }
+        closureRepository.deleteByDescendant(id);
+        categoryRepository.delete(category);
+    }
+
+    // Whole tree in one query; categories are few, so it is assembled in memory
+    public List<CategoryDTO> getCategoryTree() {
+        Map<Integer, CategoryDTO> nodes = new HashMap<>();
+        List<Category> categories = categoryRepository.findAll(Sort.by("name"));
+        for (Category category : categories) {
+            nodes.put(category.getId(), new CategoryDTO(category.getId(), category.getName(),
+                    category.getParentId(), category.getProductCount()));
+        }
+        List<CategoryDTO> roots = new ArrayList<>();
+        for (Category category : categories) {
+            CategoryDTO node = nodes.get(category.getId());
+            CategoryDTO parent = category.getParentId() == null ? null : nodes.get(category.getParentId());
+            if (parent != null) {
+                parent.getChildren().add(node);
+            } else {
+                roots.add(node);
+            }
+        }
+        return roots;
+    }
+
+    public void requireCategory(Integer categoryId) {
+        if (categoryId != null && !categoryRepository.existsById(categoryId)) {
+            throw new IllegalArgumentException("Category not found: " + categoryId);
+        }
+    }
+
+    // Move one product between categories (either side null = uncategorized). Must run in the same
+    // transaction as the product write so the counts commit or roll back with it.
+    @Transactional
+    public void moveProduct(Integer fromCategoryId, Integer toCategoryId) {
+        if (Objects.equals(fromCategoryId, toCategoryId)) {
+            return;
+        }
+        if (fromCategoryId != null) {
+            categoryRepository.addToProductCounts(fromCategoryId, -1);
+        }
+        if (toCategoryId != null) {
+            categoryRepository.addToProductCounts(toCategoryId, 1);
+        }
+    }
+}
@@ -0,0 +1,295 @@
+package com.example.ecommerce.service;
+
+import com.example.ecommerce.dto.CheckoutQueueStatsDTO;
+import com.example.ecommerce.dto.CheckoutTicketDTO;
+import com.example.ecommerce.dto.OrderDTO;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+// Opt-in admission queue for flash sales. Instead of every checkout racing for the small DB pool, buyers
+// get a ticket in a bounded FIFO per campaign (a hot product or sale), and a dispatcher places queued orders
+// at a fixed rate with a fixed number of workers. A full queue is rejected up front, so latency grows
+// with queue position rather than collapsing into pool timeouts. State is per instance and in memory.
+@Service
+public class CheckoutQueueService {
+
+    public static final String QUEUED = "QUEUED";
+    public static final String PROCESSING = "PROCESSING";
+    public static final String PLACED = "PLACED";
+    public static final String FAILED = "FAILED";
+    public static final String EXPIRED = "EXPIRED";
+
+    private static final Pattern CAMPAIGN_NAME = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+
+    private final OrderService orderService;
+    private final int capacity;
+    private final int maxCampaigns;
+    private final double ordersPerSecond;
+    private final long maxWaitMillis;
+    private final long ticketTtlMillis;
+    private final ExecutorService workers;
+    private final Semaphore workerPermits;
+
+    private final Map<String, Campaign> campaigns = new ConcurrentHashMap<>();
+    private final Map<String, Ticket> tickets = new ConcurrentHashMap<>();
+
+    // Token bucket for the placement rate; only touched by the dispatcher thread
+    private double tokens;
+    private long lastRefillNanos = System.nanoTime();
+    private int roundRobin;
+
+    public CheckoutQueueService(OrderService orderService,
+                                @Value("${checkout.queue.capacity:1000}") int capacity,
+                                @Value("${checkout.queue.max-campaigns:50}") int maxCampaigns,
+                                @Value("${checkout.queue.orders-per-second:10}") double ordersPerSecond,
+                                @Value("${checkout.queue.workers:2}") int workers,
+                                @Value("${checkout.queue.max-wait-seconds:300}") long maxWaitSeconds,
+                                @Value("${checkout.queue.ticket-ttl-seconds:600}") long ticketTtlSeconds) {
+        this.orderService = orderService;
+        this.capacity = capacity;
+        this.maxCampaigns = maxCampaigns;
+        this.ordersPerSecond = ordersPerSecond;
+        this.maxWaitMillis = maxWaitSeconds * 1000;
+        this.ticketTtlMillis = ticketTtlSeconds * 1000;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(Math.max(1, workers), r -> {
+            Thread thread = new Thread(r, "checkout-queue-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.workerPermits = new Semaphore(Math.max(1, workers));
+    }
+
+    private static class Ticket {
+        final String id = UUID.randomUUID().toString();
+        final Campaign campaign;
+        final int cartId;
+        final List<Integer> cartItemIds;
+        final long sequence;
+        final long enqueuedAt = System.currentTimeMillis();
+        volatile String status = QUEUED;
+        volatile Integer orderId;
+        volatile String message;
+        volatile long finishedAt;
+
+        Ticket(Campaign campaign, int cartId, List<Integer> cartItemIds, long sequence) {
+            this.campaign = campaign;
+            this.cartId = cartId;
+            this.cartItemIds = cartItemIds;
+            this.sequence = sequence;
+        }
+    }
+
+    private static class Campaign {
+        final String name;
+        final ArrayDeque<Ticket> queue = new ArrayDeque<>();
+        // Queued/processing ticket per cart, so retries and double clicks don't take a second slot
+        final Map<Integer, Ticket> activeByCart = new HashMap<>();
+        long nextSequence;
+        volatile long dispatchedSequence;
+        long lastActivity = System.currentTimeMillis();
+        // Set by cleanup once removed from the map; enqueue then starts a fresh campaign
+        boolean closed;
+        long enqueued, rejected, placed, failed, expired, waitCount, totalWaitMillis, maxWaitMillis;
+
+        Campaign(String name) {
+            this.name = name;
+        }
+    }
+
+    // Take a place in the campaign's queue; throws IllegalStateException when it is full
+    public CheckoutTicketDTO enqueue(String campaignName, int cartId, List<Integer> cartItemIds) {
+        if (campaignName == null || !CAMPAIGN_NAME.matcher(campaignName).matches()) {
+            throw new IllegalArgumentException("Invalid campaign name");
+        }
+        while (true) {
+            Campaign campaign = campaigns.get(campaignName);
+            if (campaign == null) {
+                if (campaigns.size() >= maxCampaigns) {
+                    throw new IllegalStateException("Too many active checkout campaigns");
+                }
+                campaign = campaigns.computeIfAbsent(campaignName, Campaign::new);
+            }
+            Ticket ticket;
+            synchronized (campaign) {
+                if (campaign.closed) {
+                    continue;
+                }
+                Ticket existing = campaign.activeByCart.get(cartId);
+                if (existing != null) {
+                    return toDTO(existing);
+                }
+                if (campaign.queue.size() >= capacity) {
+                    campaign.rejected++;
+                    throw new IllegalStateException("Checkout queue is full, try again shortly");
+                }
+                ticket = new Ticket(campaign, cartId,
+                        cartItemIds == null ? null : List.copyOf(cartItemIds), ++campaign.nextSequence);
+                campaign.queue.addLast(ticket);
+                campaign.activeByCart.put(cartId, ticket);
+                campaign.enqueued++;
+                campaign.lastActivity = ticket.enqueuedAt;
+                tickets.put(ticket.id, ticket);
+            }
+            return toDTO(ticket);
+        }
+    }
+
+    public CheckoutTicketDTO getTicket(String ticketId) {
+        Ticket ticket = tickets.get(ticketId);
+        if (ticket == null) {
+            throw new NoSuchElementException("Ticket not found");
+        }
+        return toDTO(ticket);
+    }
+
+    public List<CheckoutQueueStatsDTO> getStats() {
+        List<CheckoutQueueStatsDTO> stats = new ArrayList<>();
+        for (Campaign campaign : campaigns.values()) {
+            CheckoutQueueStatsDTO dto = new CheckoutQueueStatsDTO();
+            synchronized (campaign) {
+                dto.setCampaign(campaign.name);
+                dto.setDepth(campaign.queue.size());
+                dto.setCapacity(capacity);
+                dto.setEnqueued(campaign.enqueued);
+                dto.setRejected(campaign.rejected);
+                dto.setPlaced(campaign.placed);
+                dto.setFailed(campaign.failed);
+                dto.setExpired(campaign.expired);
+                dto.setAverageWaitMillis(campaign.waitCount == 0 ? 0
+                        : (double) campaign.totalWaitMillis / campaign.waitCount);
+                dto.setMaxWaitMillis(campaign.maxWaitMillis);
+            }
+            stats.add(dto);
+        }
+        return stats;
+    }
+
+    // Hand queued tickets to the workers, no faster than the configured rate and never more than the
+    // worker count at once. Campaigns are served round-robin so one hot sale can't starve another.
+    @Scheduled(fixedDelayString = "${checkout.queue.tick-ms:100}")
+    public void dispatch() {
+        long now = System.nanoTime();
+        // Allow at most one second of burst after an idle period
+        tokens = Math.min(Math.max(1, ordersPerSecond), tokens + (now - lastRefillNanos) / 1e9 * ordersPerSecond);
+        lastRefillNanos = now;
+
+        List<Campaign> active = new ArrayList<>(campaigns.values());
+        int idle = 0;
+        while (tokens >= 1 && !active.isEmpty() && idle < active.size()) {
+            Campaign campaign = active.get(Math.floorMod(roundRobin++, active.size()));
+            Ticket ticket;
+            synchronized (campaign) {
+                ticket = campaign.queue.peekFirst();
+                if (ticket == null) {
+                    idle++;
+                    continue;
+                }
+                if (!workerPermits.tryAcquire()) {
+                    return;
+                }
+                campaign.queue.pollFirst();
+                campaign.dispatchedSequence = ticket.sequence;
+                long waited = System.currentTimeMillis() - ticket.enqueuedAt;
+                campaign.waitCount++;
+                campaign.totalWaitMillis += waited;
+                campaign.maxWaitMillis = Math.max(campaign.maxWaitMillis, waited);
+                if (waited > maxWaitMillis) {
+                    // The buyer has most likely given up; don't place an order nobody will pay for
+                    campaign.expired++;
+                    finish(ticket, EXPIRED, null, "Waited too long in the checkout queue");
+                    workerPermits.release();
+                    continue;
+                }
+                ticket.status = PROCESSING;
+            }
+            idle = 0;
+            tokens -= 1;
+            workers.execute(() -> place(ticket));
+        }
+    }
+
+    private void place(Ticket ticket) {
+        try {
+            OrderDTO order = orderService.placeOrderFromCart(ticket.cartId, ticket.cartItemIds);
+            synchronized (ticket.campaign) {
+                ticket.campaign.placed++;
+                finish(ticket, PLACED, order.getId(), null);
+            }
+        } catch (RuntimeException e) {
+            synchronized (ticket.campaign) {
+                ticket.campaign.failed++;
+                finish(ticket, FAILED, null, e.getMessage());
+            }
+        } finally {
+            workerPermits.release();
+        }
+    }
+
+    // Caller holds the campaign lock
+    private void finish(Ticket ticket, String status, Integer orderId, String message) {
+        ticket.orderId = orderId;
+        ticket.message = message;
+        ticket.finishedAt = System.currentTimeMillis();
+        ticket.status = status;
+        ticket.campaign.activeByCart.remove(ticket.cartId, ticket);
+        ticket.campaign.lastActivity = ticket.finishedAt;
+    }
+
+    // Forget finished tickets after a while and drop campaigns that have been quiet as long
+    @Scheduled(fixedDelayString = "${checkout.queue.cleanup-ms:60000}")
+    public void cleanup() {
+        long cutoff = System.currentTimeMillis() - ticketTtlMillis;
+        tickets.values().removeIf(ticket -> ticket.finishedAt != 0 && ticket.finishedAt < cutoff);
+        campaigns.values().removeIf(campaign -> {
+            synchronized (campaign) {
+                campaign.closed = campaign.queue.isEmpty() && campaign.activeByCart.isEmpty()
+                        && campaign.lastActivity < cutoff;
+                return campaign.closed;
+            }
+        });
+    }
+
+    private CheckoutTicketDTO toDTO(Ticket ticket) {
+        CheckoutTicketDTO dto = new CheckoutTicketDTO();
+        dto.setTicketId(ticket.id);
+        dto.setCampaign(ticket.campaign.name);
+        String status = ticket.status;
+        dto.setStatus(status);
+        dto.setOrderId(ticket.orderId);
+        dto.setMessage(ticket.message);
+        if (QUEUED.equals(status)) {
+            long position = Math.max(1, ticket.sequence - ticket.campaign.dispatchedSequence);
+            dto.setPosition(position);
+            // Suggest polling about when the ticket should be near the front
+            long estimate = (long) (position * 1000 / Math.max(0.1, ordersPerSecond));
+            dto.setPollAfterMillis(Math.max(500, Math.min(5000, estimate)));
+        } else if (PROCESSING.equals(status)) {
+            dto.setPollAfterMillis(500);
+        }
+        return dto;
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        workers.shutdown();
+        workers.awaitTermination(10, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.ecommerce.service;
+
+import java.util.Locale;
+
+// Line-oriented formats used for bulk import and export
+public enum DataFormat {
+    CSV("text/csv", "csv"),
+    NDJSON("application/x-ndjson", "ndjson");
+
+    private final String mediaType;
+    private final String extension;
+
+    DataFormat(String mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    public String getMediaType() { return mediaType; }
+
+    public String getExtension() { return extension; }
+
+    // Pick the format from an explicit ?format= value, else from a Content-Type/Accept header
+    public static DataFormat resolve(String format, String mediaType) {
+        String hint = (format != null ? format : mediaType == null ? "" : mediaType).toLowerCase(Locale.ROOT);
+        if (hint.contains("csv")) {
+            return CSV;
+        }
+        if (hint.contains("ndjson") || hint.contains("json")) {
+            return NDJSON;
+        }
+        throw new IllegalArgumentException("Unsupported format, use csv or ndjson");
+    }
+}
@@ -0,0 +1,229 @@
+package com.example.ecommerce.service;
+
+import com.example.ecommerce.dto.CartDTO;
+import com.example.ecommerce.dto.CartItemDTO;
+import com.example.ecommerce.dto.CartOperationRequest;
+import com.example.ecommerce.dto.CartSummaryDTO;
+import com.example.ecommerce.entity.Cart;
+import com.example.ecommerce.entity.CartItem;
+import com.example.ecommerce.entity.Product;
+import com.example.ecommerce.repository.CartItemRepository;
+import com.example.ecommerce.repository.CartRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+// Cart edits go straight to the DB. Single-line changes are one atomic statement; batch edits go through the
+// Cart aggregate, guarded by @Version on Cart and CartItem. A write that loses a race with a concurrent edit
+// of the same cart is retried a bounded number of times in a fresh transaction.
+@Component
+@ConditionalOnProperty(name = "cart.store", havingValue = "db", matchIfMissing = true)
+public class DbCartStore implements CartStore {
+
+    private final CartRepository cartRepository;
+    private final CartItemRepository cartItemRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxAttempts;
+    private final long retryBackoffMillis;
+
+    public DbCartStore(CartRepository cartRepository, CartItemRepository cartItemRepository,
+                       PlatformTransactionManager transactionManager,
+                       @Value("${cart.retry.max-attempts:5}") int maxAttempts,
+                       @Value("${cart.retry.backoff-ms:20}") long retryBackoffMillis) {
+        this.cartRepository = cartRepository;
+        this.cartItemRepository = cartItemRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.retryBackoffMillis = retryBackoffMillis;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CartDTO getCart(int cartId) {
+        return new CartDTO(findCart(cartId));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<CartItemDTO> getItems(int cartId) {
+        return findCart(cartId).getItems().stream()
+                .map(CartItemDTO::new)
+                .collect(Collectors.toList());
+    }
+
+    // One row read; carts whose totals were never computed get them computed once here
+    @Override
+    public CartSummaryDTO getSummary(int cartId) {
+        Object[] totals = findTotals(cartId);
+        if (totals[0] == null || totals[1] == null) {
+            totals = withRetry(cartId, () -> {
+                cartRepository.recomputeTotals(cartId);
+                return findTotals(cartId);
+            });
+        }
+        return new CartSummaryDTO(cartId, ((Number) totals[0]).intValue(), ((Number) totals[1]).doubleValue());
+    }
+
+    private Object[] findTotals(int cartId) {
+        List<Object[]> rows = cartRepository.findTotals(cartId);
+        if (rows.isEmpty()) {
+            throw new RuntimeException("Cart not found with ID: " + cartId);
+        }
+        return rows.get(0);
+    }
+
+    @Override
+    public CartDTO addProduct(int cartId, Product product, int quantity) {
+        return withRetry(cartId, () -> {
+            // Common case: the product is already in the cart, so add to its line without reading it
+            boolean merged = cartItemRepository.incrementQuantity(cartId, product.getId(), quantity) == 1;
+            if (!merged) {
+                Cart cart = findCart(cartId);
+                CartItem item = new CartItem();
+                item.setProduct(product);
+                item.setQuantity(quantity);
+                cart.addItem(item);
+                // Flush here so a concurrent insert of the same line fails inside the retry
+                cartRepository.saveAndFlush(cart);
+            }
+            cartRepository.addToTotals(cartId, product.getId(), quantity);
+            return new CartDTO(findCart(cartId));
+        });
+    }
+
+    @Override
+    public CartDTO removeProduct(int cartId, int productId) {
+        return withRetry(cartId, () -> {
+            if (cartItemRepository.deleteProducts(cartId, List.of(productId)) == 0) {
+                throw new RuntimeException("Product not found in cart with ID: " + productId);
+            }
+            cartRepository.recomputeTotals(cartId);
+            return new CartDTO(findCart(cartId));
+        });
+    }
+
+    @Override
+    public CartDTO applyOperations(int cartId, List<CartOperationRequest> operations, Map<Integer, Product> products) {
+        return withRetry(cartId, () -> applyToAggregate(cartId, operations, products));
+    }
+
+    private CartDTO applyToAggregate(int cartId, List<CartOperationRequest> operations, Map<Integer, Product> products) {
+        Cart cart = findCart(cartId);
+        Map<Integer, CartItem> lines = new HashMap<>();
+        for (CartItem item : cart.getItems()) {
+            lines.put(item.getProduct().getId(), item);
+        }
+
+        for (CartOperationRequest operation : operations) {
+            int productId = operation.getProductId();
+            CartItem item = lines.get(productId);
+            boolean remove = operation.getType() == CartOperationRequest.Type.REMOVE
+                    || (operation.getType() == CartOperationRequest.Type.SET && operation.getQuantity() == 0);
+            if (remove) {
+                if (item != null) {
+                    cart.removeItem(item);
+                    lines.remove(productId);
+                }
+                continue;
+            }
+            if (item == null) {
+                item = new CartItem();
+                item.setProduct(products.get(productId));
+                item.setQuantity(0);
+                cart.addItem(item);
+                lines.put(productId, item);
+            }
+            item.setQuantity(operation.getType() == CartOperationRequest.Type.ADD
+                    ? item.getQuantity() + operation.getQuantity()
+                    : operation.getQuantity());
+        }
+
+        cartRepository.saveAndFlush(cart);
+        cartRepository.recomputeTotals(cartId);
+        return new CartDTO(cart);
+    }
+
+    @Override
+    public void removeProducts(int cartId, Collection<Integer> productIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        withRetry(cartId, () -> {
+            if (cartItemRepository.deleteProducts(cartId, productIds) > 0) {
+                cartRepository.recomputeTotals(cartId);
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public void flush(int cartId) {
+        // Always current
+    }
+
+    @Override
+    public boolean isResident(int cartId) {
+        return false;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Set<Integer> productIdsForItems(int cartId, Collection<Integer> cartItemIds) {
+        return findCart(cartId).getItems().stream()
+                .filter(item -> cartItemIds.contains(item.getId()))
+                .map(item -> item.getProduct().getId())
+                .collect(Collectors.toSet());
+    }
+
+    // Run a cart write in its own transaction, starting over when a concurrent edit of the same cart got there
+    // first. Inside a caller's transaction it runs once: a failure there has to roll back the caller's work too.
+    private <T> T withRetry(int cartId, Supplier<T> write) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return write.get();
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> write.get());
+            } catch (OptimisticLockingFailureException | DataIntegrityViolationException e) {
+                if (attempt >= maxAttempts) {
+                    throw new IllegalStateException("Cart " + cartId + " is being changed elsewhere, please try again", e);
+                }
+                backOff(attempt);
+            }
+        }
+    }
+
+    // Randomized and growing, so two colliding requests don't collide again on the next attempt
+    private void backOff(int attempt) {
+        long bound = retryBackoffMillis << Math.min(attempt - 1, 6);
+        if (bound <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(bound / 2, bound + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while retrying a cart update", e);
+        }
+    }
+
+    private Cart findCart(int cartId) {
+        return cartRepository.findWithItemsById(cartId)
+                .orElseThrow(() -> new RuntimeException("Cart not found with ID: " + cartId));
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.ecommerce.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Streaming exports hold a pool connection and a DB cursor for as long as the client takes to download them,
+// so only a few may run at once; the rest are turned away instead of queueing for a connection. Exports also
+// get their own async timeout, other async requests keep spring.mvc.async.request-timeout.
+@Component
+public class ExportLimiter {
+
+    private final Semaphore permits;
+    private final long timeoutMillis;
+
+    public ExportLimiter(@Value("${catalog.export.max-concurrent:1}") int maxConcurrent,
+                         @Value("${catalog.export.timeout-ms:1800000}") long timeoutMillis) {
+        this.permits = new Semaphore(Math.max(1, maxConcurrent));
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    // Take a permit for this request's export, held until the body has been written or the request ends
+    // (timeout, disconnect). Throws IllegalStateException when every permit is taken.
+    public StreamingResponseBody limit(WebRequest request, StreamingResponseBody body) {
+        if (!permits.tryAcquire()) {
+            throw new IllegalStateException("Too many exports are running, try again later");
+        }
+        AtomicBoolean released = new AtomicBoolean();
+        Runnable release = () -> {
+            if (released.compareAndSet(false, true)) {
+                permits.release();
+            }
+        };
+        // The body may never run if the request times out before it starts, so completion releases it too
+        AsyncWebRequest asyncRequest = WebAsyncUtils.getAsyncManager(request).getAsyncWebRequest();
+        if (asyncRequest != null) {
+            asyncRequest.setTimeout(timeoutMillis);
+            asyncRequest.addCompletionHandler(release);
+        }
+        return out -> {
+            try {
+                body.writeTo(out);
+            } finally {
+                release.run();
+            }
+        };
+    }
+}
@@ -0,0 +1,431 @@
+package com.example.ecommerce.service;
+
+import com.example.ecommerce.dto.CartDTO;
+import com.example.ecommerce.dto.CartItemDTO;
+import com.example.ecommerce.dto.CartOperationRequest;
+import com.example.ecommerce.dto.CartSummaryDTO;
+import com.example.ecommerce.entity.Cart;
+import com.example.ecommerce.entity.CartItem;
+import com.example.ecommerce.entity.Product;
+import com.example.ecommerce.repository.CartRepository;
+import com.example.ecommerce.repository.ProductRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+// Write-behind cart store. Active carts live in memory keyed by cart id: reads and edits never touch the DB
+// once a cart is loaded, and a scheduled job writes dirty carts back in batches, so a burst of edits to one
+// cart costs a single write. Carts are loaded on a miss, evicted when idle and clean, and all dirty carts
+// are written on shutdown. Single-instance only: another instance would not see unflushed edits.
+@Component
+@ConditionalOnProperty(name = "cart.store", havingValue = "memory")
+public class MemoryCartStore implements CartStore {
+
+    private final CartRepository cartRepository;
+    private final ProductRepository productRepository;
+    private final ProductService productService;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int flushBatchSize;
+    private final long idleMillis;
+
+    private final Map<Integer, MemoryCart> carts = new ConcurrentHashMap<>();
+    // Items not yet written get negative ids; clients may use them until (and after) the real id is known
+    private final AtomicInteger temporaryIds = new AtomicInteger();
+
+    public MemoryCartStore(CartRepository cartRepository, ProductRepository productRepository,
+                           ProductService productService, PlatformTransactionManager transactionManager,
+                           @Value("${cart.store.flush-batch-size:50}") int flushBatchSize,
+                           @Value("${cart.store.idle-seconds:1800}") long idleSeconds) {
+        this.cartRepository = cartRepository;
+        this.productRepository = productRepository;
+        this.productService = productService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.flushBatchSize = Math.max(1, flushBatchSize);
+        this.idleMillis = idleSeconds * 1000;
+    }
+
+    private static class Line {
+        int itemId;
+        int quantity;
+
+        Line(int itemId, int quantity) {
+            this.itemId = itemId;
+            this.quantity = quantity;
+        }
+    }
+
+    // Guarded by its own monitor
+    private static class MemoryCart {
+        final int cartId;
+        final long userId;
+        final Map<Integer, Line> lines = new LinkedHashMap<>();   // by product id, in insertion order
+        final Map<Integer, Integer> productByItemId = new HashMap<>();
+        long version;
+        long flushedVersion;
+        long lastAccess = System.currentTimeMillis();
+        boolean evicted;
+        Thread writer;   // set while a transaction writing this cart is open
+
+        MemoryCart(int cartId, long userId) {
+            this.cartId = cartId;
+            this.userId = userId;
+        }
+
+        boolean isDirty() {
+            return version != flushedVersion;
+        }
+    }
+
+    // What a flush writes: the cart's lines as of one version
+    private static class Snapshot {
+        final MemoryCart cart;
+        final Map<Integer, Integer> quantities = new LinkedHashMap<>();
+        final long version;
+        final Map<Integer, Integer> newItemIds = new HashMap<>();
+
+        Snapshot(MemoryCart cart) {
+            this.cart = cart;
+            cart.lines.forEach((productId, line) -> quantities.put(productId, line.quantity));
+            this.version = cart.version;
+        }
+    }
+
+    @Override
+    public CartDTO getCart(int cartId) {
+        return toDTO(withCart(cartId, cart -> cart));
+    }
+
+    @Override
+    public List<CartItemDTO> getItems(int cartId) {
+        return getCart(cartId).getItems();
+    }
+
+    @Override
+    public CartSummaryDTO getSummary(int cartId) {
+        int itemCount = 0;
+        double subtotal = 0;
+        for (CartItemDTO item : getItems(cartId)) {
+            itemCount += item.getQuantity();
+            subtotal += item.getQuantity() * item.getPrice();
+        }
+        return new CartSummaryDTO(cartId, itemCount, subtotal);
+    }
+
+    @Override
+    public CartDTO addProduct(int cartId, Product product, int quantity) {
+        return toDTO(withCart(cartId, cart -> {
+            Line line = cart.lines.get(product.getId());
+            if (line != null) {
+                line.quantity += quantity;
+            } else {
+                int itemId = -temporaryIds.incrementAndGet();
+                cart.lines.put(product.getId(), new Line(itemId, quantity));
+                cart.productByItemId.put(itemId, product.getId());
+            }
+            cart.version++;
+            return cart;
+        }));
+    }
+
+    @Override
+    public CartDTO removeProduct(int cartId, int productId) {
+        return toDTO(withCart(cartId, cart -> {
+            if (cart.lines.remove(productId) == null) {
+                throw new RuntimeException("Product not found in cart with ID: " + productId);
+            }
+            cart.version++;
+            return cart;
+        }));
+    }
+
+    @Override
+    public CartDTO applyOperations(int cartId, List<CartOperationRequest> operations, Map<Integer, Product> products) {
+        // Atomic because the whole batch runs under the cart's monitor; it is written back with the next flush
+        return toDTO(withCart(cartId, cart -> {
+            for (CartOperationRequest operation : operations) {
+                int productId = operation.getProductId();
+                boolean remove = operation.getType() == CartOperationRequest.Type.REMOVE
+                        || (operation.getType() == CartOperationRequest.Type.SET && operation.getQuantity() == 0);
+                if (remove) {
+                    cart.lines.remove(productId);
+                    continue;
+                }
+                Line line = cart.lines.get(productId);
+                if (line == null) {
+                    int itemId = -temporaryIds.incrementAndGet();
+                    line = new Line(itemId, 0);
+                    cart.lines.put(productId, line);
+                    cart.productByItemId.put(itemId, productId);
+                }
+                line.quantity = operation.getType() == CartOperationRequest.Type.ADD
+                        ? line.quantity + operation.getQuantity()
+                        : operation.getQuantity();
+            }
+            cart.version++;
+            return cart;
+        }));
+    }
+
+    @Override
+    public void removeProducts(int cartId, Collection<Integer> productIds) {
+        withCart(cartId, cart -> {
+            if (cart.lines.keySet().removeAll(productIds)) {
+                cart.version++;
+            }
+            return cart;
+        });
+    }
+
+    @Override
+    public void flush(int cartId) {
+        MemoryCart cart = carts.get(cartId);
+        if (cart != null) {
+            write(List.of(cart), true);
+        }
+    }
+
+    @Override
+    public boolean isResident(int cartId) {
+        return carts.containsKey(cartId);
+    }
+
+    @Override
+    public Set<Integer> productIdsForItems(int cartId, Collection<Integer> cartItemIds) {
+        return withCart(cartId, cart -> {
+            Set<Integer> productIds = new HashSet<>();
+            for (Integer itemId : cartItemIds) {
+                Integer productId = cart.productByItemId.get(itemId);
+                if (productId != null && cart.lines.containsKey(productId)) {
+                    productIds.add(productId);
+                }
+            }
+            return productIds;
+        });
+    }
+
+    // Write dirty carts back in batches, then let go of carts nobody has used for a while
+    @Scheduled(fixedDelayString = "${cart.store.flush-interval-ms:2000}")
+    public void flushDirtyCarts() {
+        flushAll();
+        long cutoff = System.currentTimeMillis() - idleMillis;
+        for (MemoryCart cart : carts.values()) {
+            synchronized (cart) {
+                if (!cart.isDirty() && cart.writer == null && cart.lastAccess < cutoff) {
+                    cart.evicted = true;
+                    carts.remove(cart.cartId, cart);
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flushAll();
+    }
+
+    private void flushAll() {
+        List<MemoryCart> dirty = new ArrayList<>();
+        for (MemoryCart cart : carts.values()) {
+            synchronized (cart) {
+                if (cart.isDirty()) {
+                    dirty.add(cart);
+                }
+            }
+        }
+        for (int from = 0; from < dirty.size(); from += flushBatchSize) {
+            List<MemoryCart> batch = dirty.subList(from, Math.min(dirty.size(), from + flushBatchSize));
+            try {
+                write(batch, false);
+            } catch (RuntimeException e) {
+                // One bad cart shouldn't hold back the rest of the batch
+                for (MemoryCart cart : batch) {
+                    try {
+                        write(List.of(cart), false);
+                    } catch (RuntimeException single) {
+                        System.out.println("Failed to flush cart " + cart.cartId + ": " + single.getMessage());
+                    }
+                }
+            }
+        }
+    }
+
+    // Reconcile the DB rows of each cart with its in-memory lines in one transaction (joining the caller's,
+    // if any). The carts are marked clean only once that transaction commits. Only one transaction at a time
+    // writes a given cart, or two could both insert the same new line: the scheduled flush skips carts that
+    // are being written, an explicit flush waits for the other writer to finish.
+    private void write(List<MemoryCart> batch, boolean waitForWriter) {
+        Thread self = Thread.currentThread();
+        List<Snapshot> snapshots = new ArrayList<>();
+        for (MemoryCart cart : batch) {
+            synchronized (cart) {
+                while (cart.writer != null && cart.writer != self && waitForWriter) {
+                    try {
+                        cart.wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IllegalStateException("Interrupted while waiting to flush cart " + cart.cartId);
+                    }
+                }
+                if ((cart.writer == null || cart.writer == self) && cart.isDirty()) {
+                    cart.writer = self;
+                    snapshots.add(new Snapshot(cart));
+                }
+            }
+        }
+        if (snapshots.isEmpty()) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            // Registered first so a failed write still releases the carts
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int completion) {
+                    for (Snapshot snapshot : snapshots) {
+                        finishWrite(snapshot, completion == STATUS_COMMITTED);
+                    }
+                }
+            });
+            for (Snapshot snapshot : snapshots) {
+                writeCart(snapshot);
+            }
+        });
+    }
+
+    private void writeCart(Snapshot snapshot) {
+        Cart cart = cartRepository.findWithItemsById(snapshot.cart.cartId).orElse(null);
+        if (cart == null) {
+            return;
+        }
+        Map<Integer, CartItem> existing = new HashMap<>();
+        for (CartItem item : cart.getItems()) {
+            existing.put(item.getProduct().getId(), item);
+        }
+        // Lines for products deleted since they were added are dropped rather than failing the write
+        Set<Integer> liveProductIds = new HashSet<>();
+        for (Product product : productService.findProductsByIds(new ArrayList<>(snapshot.quantities.keySet()))) {
+            liveProductIds.add(product.getId());
+        }
+        List<CartItem> added = new ArrayList<>();
+        snapshot.quantities.forEach((productId, quantity) -> {
+            if (!liveProductIds.contains(productId)) {
+                return;
+            }
+            CartItem item = existing.remove(productId);
+            if (item == null) {
+                item = new CartItem();
+                item.setProduct(productRepository.getReferenceById(productId));
+                cart.addItem(item);
+                added.add(item);
+            }
+            item.setQuantity(quantity);
+        });
+        for (CartItem removed : existing.values()) {
+            cart.removeItem(removed);
+        }
+        cartRepository.saveAndFlush(cart);
+        cartRepository.recomputeTotals(cart.getId());
+        for (CartItem item : added) {
+            snapshot.newItemIds.put(item.getProduct().getId(), item.getId());
+        }
+    }
+
+    private void finishWrite(Snapshot snapshot, boolean committed) {
+        MemoryCart cart = snapshot.cart;
+        synchronized (cart) {
+            cart.writer = null;
+            cart.notifyAll();
+            if (!committed) {
+                return;
+            }
+            snapshot.newItemIds.forEach((productId, itemId) -> {
+                cart.productByItemId.put(itemId, productId);
+                Line line = cart.lines.get(productId);
+                if (line != null && line.itemId < 0) {
+                    line.itemId = itemId;
+                }
+            });
+            cart.flushedVersion = Math.max(cart.flushedVersion, snapshot.version);
+        }
+    }
+
+    // Run an action on the in-memory cart, loading it first on a miss
+    private <T> T withCart(int cartId, Function<MemoryCart, T> action) {
+        while (true) {
+            MemoryCart cart = carts.get(cartId);
+            if (cart == null) {
+                // Load outside the map so a slow query doesn't block other carts
+                MemoryCart loaded = load(cartId);
+                cart = carts.putIfAbsent(cartId, loaded);
+                if (cart == null) {
+                    cart = loaded;
+                }
+            }
+            synchronized (cart) {
+                if (cart.evicted) {
+                    continue;
+                }
+                cart.lastAccess = System.currentTimeMillis();
+                return action.apply(cart);
+            }
+        }
+    }
+
+    private MemoryCart load(int cartId) {
+        MemoryCart loaded = readOnlyTransaction.execute(status -> cartRepository.findWithItemsById(cartId).map(cart -> {
+            MemoryCart memoryCart = new MemoryCart(cart.getId(), cart.getUser().getId());
+            for (CartItem item : cart.getItems()) {
+                int productId = item.getProduct().getId();
+                memoryCart.lines.put(productId, new Line(item.getId(), item.getQuantity()));
+                memoryCart.productByItemId.put(item.getId(), productId);
+            }
+            return memoryCart;
+        }).orElse(null));
+        if (loaded == null) {
+            throw new RuntimeException("Cart not found with ID: " + cartId);
+        }
+        return loaded;
+    }
+
+    // Product details come from the product cache, not the DB
+    private CartDTO toDTO(MemoryCart cart) {
+        List<Integer> productIds;
+        Map<Integer, int[]> lines = new LinkedHashMap<>();
+        synchronized (cart) {
+            cart.lines.forEach((productId, line) -> lines.put(productId, new int[]{line.itemId, line.quantity}));
+            productIds = new ArrayList<>(lines.keySet());
+        }
+        Map<Integer, Product> products = new HashMap<>();
+        for (Product product : productService.findProductsByIds(productIds)) {
+            products.put(product.getId(), product);
+        }
+        List<CartItemDTO> items = new ArrayList<>();
+        lines.forEach((productId, line) -> {
+            Product product = products.get(productId);
+            if (product != null) {
+                items.add(new CartItemDTO(line[0], product, line[1]));
+            }
+        });
+        return new CartDTO(cart.cartId, cart.userId, items);
+    }
+}
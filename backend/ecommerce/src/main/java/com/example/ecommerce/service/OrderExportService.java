@@ -0,0 +1,138 @@
+package com.example.ecommerce.service;
+
+import com.example.ecommerce.repository.OrderItemRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+// Order history export for finance: one row per order line, orders with their items and products joined in a
+// single query. Rows come off a forward-only DB cursor as plain values and are written straight to the
+// response, so heap use is the same for a day or a year.
+@Service
+public class OrderExportService {
+
+    // Column order of OrderItemRepository.streamLinesPlacedBetween, which is also the CSV header and JSON keys
+    private static final String[] FIELDS = {
+            "orderId", "orderDate", "status", "userId", "orderTotal", "razorpayOrderId", "razorpayPaymentId",
+            "itemId", "productId", "productName", "quantity", "unitPrice"
+    };
+
+    private final OrderItemRepository orderItemRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectMapper objectMapper;
+
+    public OrderExportService(OrderItemRepository orderItemRepository, PlatformTransactionManager transactionManager,
+                              ObjectMapper objectMapper) {
+        this.orderItemRepository = orderItemRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.objectMapper = objectMapper;
+    }
+
+    // Lines of orders placed in [from, to)
+    public StreamingResponseBody exportOrderLines(Date from, Date to, DataFormat format, boolean gzip) {
+        return responseStream -> {
+            OutputStream out = gzip ? new GZIPOutputStream(responseStream, 64 * 1024) : responseStream;
+            try {
+                if (format == DataFormat.CSV) {
+                    writeCsv(out, from, to);
+                } else {
+                    writeNdjson(out, from, to);
+                }
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            if (out instanceof GZIPOutputStream gzipOut) {
+                gzipOut.finish();
+            }
+        };
+    }
+
+    private void writeCsv(OutputStream out, Date from, Date to) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        writer.write(String.join(",", FIELDS));
+        writer.write('\n');
+        forEachLine(from, to, row -> {
+            try {
+                for (int i = 0; i < row.length; i++) {
+                    if (i > 0) {
+                        writer.write(',');
+                    }
+                    Object value = row[i];
+                    if (value instanceof String text) {
+                        writer.write(Csv.escape(text));
+                    } else if (value != null) {
+                        writer.write(format(value));
+                    }
+                }
+                writer.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        writer.flush();
+    }
+
+    private void writeNdjson(OutputStream out, Date from, Date to) throws IOException {
+        JsonGenerator json = objectMapper.getFactory().createGenerator(out);
+        json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        forEachLine(from, to, row -> {
+            try {
+                json.writeStartObject();
+                for (int i = 0; i < row.length; i++) {
+                    Object value = row[i];
+                    json.writeFieldName(FIELDS[i]);
+                    if (value == null) {
+                        json.writeNull();
+                    } else if (value instanceof Number number) {
+                        json.writeNumber(format(number));
+                    } else {
+                        json.writeString(format(value));
+                    }
+                }
+                json.writeEndObject();
+                json.writeRaw('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        json.flush();
+    }
+
+    // Dates as ISO-8601 instants so the files don't depend on the server's time zone; amounts without
+    // exponent notation, which spreadsheets and ledgers would otherwise misread
+    private static String format(Object value) {
+        if (value instanceof Date date) {
+            return date.toInstant().toString();
+        }
+        if (value instanceof Double amount) {
+            return BigDecimal.valueOf(amount).toPlainString();
+        }
+        return value.toString();
+    }
+
+    // Runs on the async request thread, so it opens its own read-only transaction for the cursor
+    private void forEachLine(Date from, Date to, Consumer<Object[]> consumer) {
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<Object[]> lines = orderItemRepository.streamLinesPlacedBetween(from, to)) {
+                lines.forEach(consumer);
+            }
+        });
+    }
+}
@@ -0,0 +1,241 @@
+package com.example.ecommerce.service;
+
+import com.example.ecommerce.dto.OrderRollupDTO;
+import com.example.ecommerce.entity.Order;
+import com.example.ecommerce.entity.OrderItem;
+import com.example.ecommerce.entity.OrderRollup.Granularity;
+import com.example.ecommerce.repository.OrderItemRepository;
+import com.example.ecommerce.repository.OrderRepository;
+import com.example.ecommerce.repository.OrderRollupRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+// Hourly and daily order rollups (order_rollups). Placement and every status change apply their delta in the
+// same transaction as the order write, right after OrderStatsService. A scheduled job rebuilds whole days
+// from the orders table: all of history once (unless the table shows an earlier run finished it), then just
+// the last few days to correct drift.
+@Service
+public class OrderRollupService {
+
+    // Longest series one request may ask for, in buckets
+    private static final int MAX_BUCKETS = 2000;
+
+    private final OrderRollupRepository rollupRepository;
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int slots;
+    private final int recountDays;
+    private final long pauseMillis;
+
+    // Until a full pass is known to have finished, each run goes back to the oldest order
+    private volatile boolean backfilled;
+
+    public OrderRollupService(OrderRollupRepository rollupRepository, OrderRepository orderRepository,
+                              OrderItemRepository orderItemRepository, PlatformTransactionManager transactionManager,
+                              @Value("${order.stats.slots:8}") int slots,
+                              @Value("${order.rollups.recount-days:2}") int recountDays,
+                              @Value("${order.rollups.pause-ms:100}") long pauseMillis) {
+        this.rollupRepository = rollupRepository;
+        this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.slots = Math.max(1, slots);
+        this.recountDays = Math.max(1, recountDays);
+        this.pauseMillis = pauseMillis;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordPlaced(Order order) {
+        apply(order, order.getStatus(), 1);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordTransition(Order order, String fromStatus, String toStatus) {
+        if (Objects.equals(fromStatus, toStatus)) {
+            return;
+        }
+        if (fromStatus != null) {
+            apply(order, fromStatus, -1);
+        }
+        apply(order, toStatus, 1);
+    }
+
+    // HOUR before DAY, the same order the rebuild locks them in
+    private void apply(Order order, String status, int sign) {
+        if (order.getOrderDate() == null) {
+            return;
+        }
+        LocalDateTime placed = toLocalDateTime(order.getOrderDate());
+        int slot = Math.floorMod(order.getId(), slots);
+        double revenue = sign * order.getTotalPrice();
+        long units = sign * order.getOrderItems().stream().mapToLong(OrderItem::getQuantity).sum();
+        rollupRepository.add(Granularity.HOUR.name(), toDate(placed.truncatedTo(ChronoUnit.HOURS)),
+                status, slot, sign, revenue, units);
+        rollupRepository.add(Granularity.DAY.name(), toDate(placed.truncatedTo(ChronoUnit.DAYS)),
+                status, slot, sign, revenue, units);
+    }
+
+    // Buckets starting in [from, to), oldest first, one point per bucket and status that had orders
+    @Transactional(readOnly = true)
+    public List<OrderRollupDTO> getSeries(String granularity, LocalDateTime from, LocalDateTime to, String status) {
+        Granularity unit;
+        try {
+            unit = Granularity.valueOf(granularity.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("granularity must be HOUR or DAY");
+        }
+        if (from == null || to == null || !from.isBefore(to)) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+        long buckets = unit == Granularity.HOUR ? ChronoUnit.HOURS.between(from, to) : ChronoUnit.DAYS.between(from, to);
+        if (buckets > MAX_BUCKETS) {
+            throw new IllegalArgumentException("Range too long: at most " + MAX_BUCKETS + " " + unit.name().toLowerCase()
+                    + " buckets per request");
+        }
+        String statusFilter = status == null || status.isBlank() || "ALL".equalsIgnoreCase(status)
+                ? null : status.toUpperCase();
+
+        List<OrderRollupDTO> series = new ArrayList<>();
+        for (Object[] row : rollupRepository.findSeries(unit, toDate(from), toDate(to), statusFilter)) {
+            series.add(new OrderRollupDTO((Date) row[0], (String) row[1], ((Number) row[2]).longValue(),
+                    ((Number) row[3]).doubleValue(), ((Number) row[4]).longValue()));
+        }
+        return series;
+    }
+
+    // One day per transaction, with a pause in between, so checkouts only ever wait on a single day's rows.
+    // Newest day first: the oldest order's day is rebuilt last, so once its rollup matches the orders table a
+    // full pass has finished, and a restart doesn't walk the whole history again.
+    @Scheduled(initialDelayString = "${order.rollups.initial-delay-ms:120000}",
+               fixedDelayString = "${order.rollups.recount-interval-ms:3600000}")
+    public void recount() {
+        long started = System.currentTimeMillis();
+        LocalDate today = LocalDate.now();
+        LocalDate firstDay = today.minusDays(recountDays - 1);
+        if (!backfilled) {
+            Date first = orderRepository.findFirstOrderDate();
+            LocalDate firstOrderDay = first == null ? null : toLocalDateTime(first).toLocalDate();
+            if (firstOrderDay == null || !firstOrderDay.isBefore(firstDay) || isRebuilt(firstOrderDay)) {
+                backfilled = true;
+            } else {
+                firstDay = firstOrderDay;
+            }
+        }
+
+        int days = 0;
+        for (LocalDate day = today; !day.isBefore(firstDay); day = day.minusDays(1)) {
+            LocalDate current = day;
+            transactionTemplate.executeWithoutResult(status -> rebuildDay(current));
+            days++;
+            if (!day.equals(firstDay) && !pause()) {
+                return;
+            }
+        }
+
+        if (!backfilled) {
+            backfilled = true;
+            System.out.println("Order rollups: backfilled " + days + " days in "
+                    + (System.currentTimeMillis() - started) + " ms");
+        }
+    }
+
+    // Whether the day's DAY rows hold the order counts per status that the orders table has. Rows written only
+    // by deltas for a day that was never rebuilt don't: a status change of an old order leaves -1 under the
+    // old status.
+    private boolean isRebuilt(LocalDate day) {
+        Date from = toDate(day.atStartOfDay());
+        Date to = toDate(day.plusDays(1).atStartOfDay());
+        Map<String, Long> expected = new HashMap<>();
+        for (Object[] row : orderRepository.summarizeByStatusPlacedBetween(from, to)) {
+            expected.put(String.valueOf(row[0]), ((Number) row[1]).longValue());
+        }
+        Map<String, Long> actual = new HashMap<>();
+        for (Object[] row : rollupRepository.findSeries(Granularity.DAY, from, to, null)) {
+            long count = ((Number) row[2]).longValue();
+            if (count != 0) {
+                actual.put(String.valueOf(row[1]), count);
+            }
+        }
+        return expected.equals(actual);
+    }
+
+    // Replace the day's DAY and HOUR rows with a recount of its orders. The rows are locked first, so a status
+    // change committing meanwhile is either in the recount or waits and applies its delta on top.
+    private void rebuildDay(LocalDate day) {
+        Date from = toDate(day.atStartOfDay());
+        Date to = toDate(day.plusDays(1).atStartOfDay());
+        rollupRepository.lockRange(Granularity.HOUR, from, to);
+        rollupRepository.lockRange(Granularity.DAY, from, to);
+
+        // hour -> status -> [count, revenue, units]
+        Map<Integer, Map<String, double[]>> hours = new HashMap<>();
+        for (Object[] row : orderRepository.summarizeByHourAndStatusPlacedBetween(from, to)) {
+            double[] totals = totalsFor(hours, row);
+            totals[0] += ((Number) row[2]).longValue();
+            totals[1] += row[3] == null ? 0 : ((Number) row[3]).doubleValue();
+        }
+        for (Object[] row : orderItemRepository.sumUnitsByHourAndStatusPlacedBetween(from, to)) {
+            totalsFor(hours, row)[2] += row[2] == null ? 0 : ((Number) row[2]).longValue();
+        }
+
+        rollupRepository.deleteRange(Granularity.HOUR, from, to);
+        rollupRepository.deleteRange(Granularity.DAY, from, to);
+        Map<String, double[]> dayTotals = new HashMap<>();
+        hours.forEach((hour, byStatus) -> {
+            Date hourStart = toDate(day.atTime(hour, 0));
+            byStatus.forEach((status, totals) -> {
+                add(Granularity.HOUR, hourStart, status, totals);
+                double[] sum = dayTotals.computeIfAbsent(status, s -> new double[3]);
+                for (int i = 0; i < 3; i++) {
+                    sum[i] += totals[i];
+                }
+            });
+        });
+        dayTotals.forEach((status, totals) -> add(Granularity.DAY, from, status, totals));
+    }
+
+    private void add(Granularity granularity, Date bucketStart, String status, double[] totals) {
+        rollupRepository.add(granularity.name(), bucketStart, status, 0, (long) totals[0], totals[1], (long) totals[2]);
+    }
+
+    private static double[] totalsFor(Map<Integer, Map<String, double[]>> hours, Object[] row) {
+        return hours.computeIfAbsent(((Number) row[0]).intValue(), h -> new HashMap<>())
+                .computeIfAbsent(String.valueOf(row[1]), s -> new double[3]);
+    }
+
+    private static LocalDateTime toLocalDateTime(Date date) {
+        return date.toInstant().atZone(ZoneId.systemDefault()).toLocalDateTime();
+    }
+
+    // An hour repeated by a DST change maps to its earlier instant, so both halves share one bucket
+    private static Date toDate(LocalDateTime time) {
+        return Date.from(time.atZone(ZoneId.systemDefault()).toInstant());
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(pauseMillis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -1,33 +1,53 @@
 package com.example.ecommerce.service;
 
+import com.example.ecommerce.dto.OrderCursor;
 import com.example.ecommerce.dto.OrderDTO;
-import com.example.ecommerce.dto.OrderItemDTO;
+import com.example.ecommerce.dto.OrderPageDTO;
 import com.example.ecommerce.dto.OrderStatsDTO;
-import com.example.ecommerce.dto.ProductDTO;
+import com.example.ecommerce.dto.UserOrderSummaryDTO;
 import com.example.ecommerce.entity.Cart;
 import com.example.ecommerce.entity.CartItem;
 import com.example.ecommerce.entity.Order;
 import com.example.ecommerce.entity.OrderItem;
+import com.example.ecommerce.entity.Product;
 import com.example.ecommerce.entity.User;
 import com.example.ecommerce.repository.CartRepository;
 import com.example.ecommerce.repository.OrderRepository;
+import com.example.ecommerce.repository.OrderSpecifications;
 import com.example.ecommerce.repository.UserRepository;
-import com.example.ecommerce.dto.ProductMapper;
+import com.example.ecommerce.dto.OrderMapper;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
-import java.time.LocalDateTime;
-import java.time.ZoneId;
 
 @Service
 public class OrderService {
 
+    // Order listing page sizes
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+
+    // Statuses that end an order without a sale, giving its reserved stock back. They are final: the stock may
+    // already be sold again, so the order can't be revived.
+    private static final Set<String> STOCK_RELEASING_STATUSES = Set.of("CANCELLED", "PAYMENT_FAILED");
+
+    // Statuses of an order still waiting to be paid, the only ones whose stock is given back on cancellation
+    // or a failed payment (later ones have been paid for)
+    private static final Set<String> AWAITING_PAYMENT_STATUSES = Set.of("PENDING", "CREATED");
+
     @Autowired
     private CartRepository cartRepository;
 
@@ -38,12 +58,26 @@ public class OrderService {
     private UserRepository userRepository;
 
     @Autowired
-    private ProductMapper productMapper;
+    private OrderMapper orderMapper;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CartStore cartStore;
+
+    @Autowired
+    private OrderStatsService orderStatsService;
+
+    @Autowired
+    private OrderRollupService orderRollupService;
 
     // Modified to NOT clear cart until payment is verified
     @Transactional
     public OrderDTO placeOrderFromCart(int cartId, List<Integer> cartItemIds) {
-        Cart cart = cartRepository.findById(cartId)
+        // A write-behind store may hold edits the DB hasn't seen yet
+        cartStore.flush(cartId);
+        Cart cart = cartRepository.findWithItemsById(cartId)
                 .orElseThrow(() -> new RuntimeException("Cart not found"));
 
         if (cart.getItems() == null || cart.getItems().isEmpty()) {
@@ -59,8 +93,10 @@ public class OrderService {
         if (cartItemIds == null || cartItemIds.isEmpty()) {
             itemsToOrder = new ArrayList<>(cart.getItems());
         } else {
+            // Item ids come from the store, which may hand out ids for lines not yet written
+            Set<Integer> productIds = cartStore.productIdsForItems(cartId, cartItemIds);
             itemsToOrder = cart.getItems().stream()
-                    .filter(item -> cartItemIds.contains(item.getId()))
+                    .filter(item -> productIds.contains(item.getProduct().getId()))
                     .collect(Collectors.toList());
         }
 
@@ -86,13 +122,23 @@ public class OrderService {
 
         Order savedOrder = orderRepository.save(order);
 
+        // Last writes before commit, so contended product and stats rows stay locked as briefly as possible
+        reserveStock(orderItems);
+        orderStatsService.recordPlaced(savedOrder);
+        orderRollupService.recordPlaced(savedOrder);
+
+        // Feed autocomplete popularity
+        productService.recordProductsOrdered(orderItems.stream()
+                .map(item -> item.getProduct().getId())
+                .collect(Collectors.toList()));
+
         return convertToDTO(savedOrder);
     }
 
     // NEW method to clear cart after successful payment
     @Transactional
     public void clearCartAfterPayment(int orderId) {
-        Order order = orderRepository.findById(orderId)
+        Order order = orderRepository.findWithItemsById(orderId)
                 .orElseThrow(() -> new RuntimeException("Order not found"));
         
         // Only clear cart if payment was successful
@@ -106,34 +152,70 @@ public class OrderService {
                         .collect(Collectors.toList());
                 
                 // Remove ordered items from cart
-                cart.getItems().removeIf(cartItem -> 
-                    orderedProductIds.contains(cartItem.getProduct().getId())
-                );
-                
-                cartRepository.save(cart);
+                cartStore.removeProducts(cart.getId(), orderedProductIds);
             }
         }
     }
 
-    // Get all orders for admin
-    public List<OrderDTO> getAllOrdersForAdmin() {
-        List<Order> orders = orderRepository.findAllByOrderByOrderDateDesc();
-        return orders.stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+    // One page of orders for the admin listing, newest first, with optional filters (each null = any):
+    // status, order date in [from, to), placing user, and total amount in [minTotal, maxTotal].
+    // Keyset-paginated on (orderDate, id): pass the previous page's nextCursor to continue.
+    @Transactional(readOnly = true)
+    public OrderPageDTO getAdminOrderPage(String status, Date from, Date to, Long userId,
+                                          Double minTotal, Double maxTotal, String cursorToken, Integer size) {
+        List<Specification<Order>> filters = new ArrayList<>();
+        if (status != null && !status.isBlank()) {
+            filters.add(OrderSpecifications.hasStatus(status.toUpperCase()));
+        }
+        if (from != null || to != null) {
+            filters.add(OrderSpecifications.placedBetween(from, to));
+        }
+        if (userId != null) {
+            filters.add(OrderSpecifications.forUser(userId));
+        }
+        if (minTotal != null || maxTotal != null) {
+            filters.add(OrderSpecifications.totalBetween(minTotal, maxTotal));
+        }
+        return findOrderPage(filters, cursorToken, size);
     }
 
-    // Get orders by status
-    public List<OrderDTO> getOrdersByStatus(String status) {
-        List<Order> orders = orderRepository.findByStatusOrderByOrderDateDesc(status.toUpperCase());
-        return orders.stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+    private OrderPageDTO findOrderPage(List<Specification<Order>> filters, String cursorToken, Integer size) {
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        List<Specification<Order>> conditions = new ArrayList<>(filters);
+        if (cursorToken != null && !cursorToken.isBlank()) {
+            conditions.add(OrderSpecifications.before(OrderCursor.decode(cursorToken)));
+        }
+
+        // Step 1: seek the page on the (…, order_date, id) index, one extra row to detect a next page
+        Sort newestFirst = Sort.by(Sort.Direction.DESC, "orderDate").and(Sort.by(Sort.Direction.DESC, "id"));
+        List<Order> rows = orderRepository.findBy(Specification.allOf(conditions),
+                q -> q.sortBy(newestFirst).limit(pageSize + 1).all());
+
+        String nextCursor = null;
+        if (rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+            nextCursor = OrderCursor.after(rows.get(pageSize - 1)).encode();
+        }
+
+        // Step 2: load just those orders with their items and products, and put them back in page order
+        List<Integer> ids = rows.stream().map(Order::getId).collect(Collectors.toList());
+        Map<Integer, Order> loaded = new HashMap<>();
+        for (Order order : orderRepository.findWithItemsByIdIn(ids)) {
+            loaded.put(order.getId(), order);
+        }
+        List<OrderDTO> items = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            Order order = loaded.get(id);
+            if (order != null) {
+                items.add(convertToDTO(order));
+            }
+        }
+        return new OrderPageDTO(items, nextCursor, pageSize);
     }
 
     // Get order by ID for specific user (security check)
     public OrderDTO getOrderByIdForUser(int orderId, Long userId) {
-        Order order = orderRepository.findById(orderId)
+        Order order = orderRepository.findWithItemsById(orderId)
                 .orElseThrow(() -> new RuntimeException("Order not found"));
         
         // Ensure order belongs to the requesting user
@@ -144,7 +226,7 @@ public class OrderService {
         return convertToDTO(order);
     }
     public OrderDTO getOrderByIdForAdmin(int orderId) {
-        Order order = orderRepository.findById(orderId)
+        Order order = orderRepository.findWithItemsById(orderId)
                 .orElseThrow(() -> new RuntimeException("Order not found"));
         return convertToDTO(order);
     }
@@ -152,7 +234,7 @@ public class OrderService {
     // Update order status
     @Transactional
     public OrderDTO updateOrderStatus(int orderId, String newStatus) {
-        Order order = orderRepository.findById(orderId)
+        Order order = orderRepository.findWithItemsById(orderId)
                 .orElseThrow(() -> new RuntimeException("Order not found"));
 
         // Validate status
@@ -161,7 +243,7 @@ public class OrderService {
         }
 
         String oldStatus = order.getStatus();
-        order.setStatus(newStatus.toUpperCase());
+        transitionStatus(order, newStatus.toUpperCase());
         
         Order savedOrder = orderRepository.save(order);
         
@@ -176,65 +258,44 @@ public class OrderService {
         return convertToDTO(savedOrder);
     }
 
-    // Get orders by user ID
-    public List<OrderDTO> getOrdersByUserId(Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        
-        List<Order> orders = orderRepository.findByUserOrderByOrderDateDesc(user);
-        return orders.stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+    // One page of a user's order history, newest first, optionally only one status. Seeks on
+    // (user_id, order_date, id) or (user_id, status, order_date, id), so a page costs the same however
+    // many orders the user has placed.
+    @Transactional(readOnly = true)
+    public OrderPageDTO getUserOrderPage(Long userId, String status, String cursorToken, Integer size) {
+        if (!userRepository.existsById(userId)) {
+            throw new NoSuchElementException("User not found");
+        }
+        List<Specification<Order>> filters = new ArrayList<>();
+        filters.add(OrderSpecifications.forUser(userId));
+        if (status != null && !status.isBlank() && !"ALL".equalsIgnoreCase(status)) {
+            filters.add(OrderSpecifications.hasStatus(status.toUpperCase()));
+        }
+        return findOrderPage(filters, cursorToken, size);
     }
 
-    // Get order statistics
-    public OrderStatsDTO getOrderStatistics() {
-        long totalOrders = orderRepository.count();
-        long pendingOrders = orderRepository.countByStatus("PENDING");
-        long paidOrders = orderRepository.countByStatus("PAID");
-        long shippedOrders = orderRepository.countByStatus("SHIPPED");
-        long deliveredOrders = orderRepository.countByStatus("DELIVERED");
-        long cancelledOrders = orderRepository.countByStatus("CANCELLED");
-        
-        // Calculate total revenue from paid and delivered orders
-        List<Order> completedOrders = orderRepository.findByStatusIn(List.of("PAID", "SHIPPED", "DELIVERED"));
-        double totalRevenue = completedOrders.stream()
-                .mapToDouble(Order::getTotalPrice)
-                .sum();
-
-        // Calculate monthly revenue (current month)
-        LocalDateTime startOfMonth = LocalDateTime.now().withDayOfMonth(1).withHour(0).withMinute(0).withSecond(0);
-        Date monthStart = Date.from(startOfMonth.atZone(ZoneId.systemDefault()).toInstant());
-        
-        List<Order> monthlyOrders = orderRepository.findByOrderDateAfterAndStatusIn(monthStart, List.of("PAID", "SHIPPED", "DELIVERED"));
-        double monthlyRevenue = monthlyOrders.stream()
-                .mapToDouble(Order::getTotalPrice)
-                .sum();
+    // Order count and spend for a user's dashboard, one GROUP BY over the user's index range
+    public UserOrderSummaryDTO getUserOrderSummary(Long userId) {
+        long totalOrders = 0;
+        double totalSpent = 0;
+        Map<String, Long> byStatus = new TreeMap<>();
+        for (Object[] row : orderRepository.summarizeByStatusForUser(userId)) {
+            long count = ((Number) row[1]).longValue();
+            totalOrders += count;
+            totalSpent += row[2] == null ? 0 : ((Number) row[2]).doubleValue();
+            byStatus.put(String.valueOf(row[0]), count);
+        }
+        return new UserOrderSummaryDTO(totalOrders, totalSpent, byStatus);
+    }
 
-        return new OrderStatsDTO(totalOrders, pendingOrders, paidOrders, shippedOrders, 
-                                deliveredOrders, cancelledOrders, totalRevenue, monthlyRevenue);
+    // Get order statistics (running totals, see OrderStatsService)
+    public OrderStatsDTO getOrderStatistics() {
+        return orderStatsService.getStats();
     }
 
-    // Helper method - Convert Order to DTO
+    // Helper method - Convert Order to DTO (expects items and products to be loaded, see OrderRepository)
     private OrderDTO convertToDTO(Order order) {
-        OrderDTO dto = new OrderDTO();
-        dto.setId(order.getId());
-        dto.setUserId(order.getUser().getId());
-        dto.setOrderDate(order.getOrderDate());
-        dto.setStatus(order.getStatus());
-        dto.setTotalPrice(order.getTotalPrice());
-
-        List<OrderItemDTO> itemDTOs = order.getOrderItems().stream().map(oi -> {
-            OrderItemDTO itemDTO = new OrderItemDTO();
-            itemDTO.setId(oi.getId());
-            itemDTO.setQuantity(oi.getQuantity());
-            itemDTO.setPrice(oi.getPrice());
-            itemDTO.setProduct(productMapper.toDTO(oi.getProduct()));
-            return itemDTO;
-        }).collect(Collectors.toList());
-
-        dto.setOrderItems(itemDTOs);
-        return dto;
+        return orderMapper.toDTO(order);
     }
 
     // Helper method - Validate order status
@@ -246,7 +307,7 @@ public class OrderService {
     // Cancel an order (user side)
     @Transactional
     public OrderDTO cancelOrder(int orderId, Long userId) {
-        Order order = orderRepository.findById(orderId)
+        Order order = orderRepository.findWithItemsById(orderId)
                 .orElseThrow(() -> new RuntimeException("Order not found"));
 
         // Ensure order belongs to user
@@ -259,9 +320,85 @@ public class OrderService {
             throw new RuntimeException("Order cannot be cancelled at this stage. Current status: " + order.getStatus());
         }
 
-        order.setStatus("CANCELLED");
+        transitionStatus(order, "CANCELLED");
         Order savedOrder = orderRepository.save(order);
 
         return convertToDTO(savedOrder);
     }
+
+    // Every order status change goes through here so its side effects can't be skipped. The order is saved
+    // here too, so its new status and the stats delta commit together whatever transaction the caller has.
+    // Throws IllegalStateException for a change out of a final status, or to PAYMENT_FAILED after payment,
+    // or when another request changed the status since the caller loaded the order.
+    @Transactional
+    public void transitionStatus(Order order, String newStatus) {
+        String oldStatus = order.getStatus();
+        if (STOCK_RELEASING_STATUSES.contains(oldStatus) && !oldStatus.equals(newStatus)) {
+            throw new IllegalStateException("Order " + order.getId() + " is " + oldStatus + " and can't be changed");
+        }
+        if ("PAYMENT_FAILED".equals(newStatus) && !AWAITING_PAYMENT_STATUSES.contains(oldStatus)) {
+            throw new IllegalStateException("Order " + order.getId() + " is " + oldStatus + ", not awaiting payment");
+        }
+        // The checks above hold only if the row still has the status they read. The conditional update
+        // verifies that and locks the row, so of two racing changes (a cancel and a payment, say) the
+        // second one fails here instead of overwriting the first and releasing or keeping stock wrongly.
+        if (orderRepository.updateStatusIf(order.getId(), oldStatus, newStatus) == 0) {
+            throw new IllegalStateException("Order " + order.getId() + " is no longer " + oldStatus
+                    + "; it was changed by another request");
+        }
+        order.setStatus(newStatus);
+        if (STOCK_RELEASING_STATUSES.contains(newStatus) && AWAITING_PAYMENT_STATUSES.contains(oldStatus)) {
+            releaseStock(order);
+        }
+        orderRepository.save(order);
+        orderStatsService.recordTransition(order, oldStatus, newStatus);
+        orderRollupService.recordTransition(order, oldStatus, newStatus);
+    }
+
+    // Mark an order paid and store its payment id in one transaction, so the two commit together and a
+    // concurrent callback for the same order fails the status check instead of counting the payment twice
+    @Transactional
+    public void recordPayment(Order order, String paymentId) {
+        order.setRazorpayPaymentId(paymentId);
+        transitionStatus(order, "PAID");
+    }
+
+    public boolean isAwaitingPayment(Order order) {
+        return AWAITING_PAYMENT_STATUSES.contains(order.getStatus());
+    }
+
+    // Take stock for every tracked product in the order with conditional decrements. Products are done in
+    // id order so concurrent checkouts lock rows in the same order and can't deadlock; a shortfall throws
+    // and rolls the whole order back.
+    private void reserveStock(List<OrderItem> orderItems) {
+        Map<Integer, Integer> quantities = new TreeMap<>();
+        Map<Integer, String> names = new TreeMap<>();
+        for (OrderItem item : orderItems) {
+            Product product = item.getProduct();
+            if (product == null || product.getStock() == null) {
+                continue; // stock not tracked
+            }
+            quantities.merge(product.getId(), item.getQuantity(), Integer::sum);
+            names.put(product.getId(), product.getName());
+            item.setStockReserved(true);
+        }
+        for (Map.Entry<Integer, Integer> entry : quantities.entrySet()) {
+            if (!productService.reserveStock(entry.getKey(), entry.getValue())) {
+                throw new IllegalStateException("Insufficient stock for " + names.get(entry.getKey()));
+            }
+        }
+        productService.onStockChanged(quantities.keySet());
+    }
+
+    private void releaseStock(Order order) {
+        Map<Integer, Integer> quantities = new TreeMap<>();
+        for (OrderItem item : order.getOrderItems()) {
+            if (item.isStockReserved() && item.getProduct() != null) {
+                quantities.merge(item.getProduct().getId(), item.getQuantity(), Integer::sum);
+                item.setStockReserved(false);
+            }
+        }
+        quantities.forEach(productService::releaseStock);
+        productService.onStockChanged(quantities.keySet());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,199 @@
+package com.example.ecommerce.service;
+
+import com.example.ecommerce.dto.OrderStatsDTO;
+import com.example.ecommerce.entity.Order;
+import com.example.ecommerce.repository.OrderRepository;
+import com.example.ecommerce.repository.OrderStatusStatsRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+// Order counts and revenue per status, kept as running totals in order_status_stats so the admin dashboard
+// reads a handful of rows instead of scanning orders. Every placement and status change applies its delta
+// in the same transaction as the order write; a periodic pass recounts each month from the orders table and
+// rewrites any bucket that has drifted (rows written before this existed, manual SQL, and so on).
+@Service
+public class OrderStatsService {
+
+    static final String ALL_BUCKET = "ALL";
+
+    // Statuses whose orders count as revenue on the dashboard
+    private static final Set<String> REVENUE_STATUSES = Set.of("PAID", "SHIPPED", "DELIVERED");
+
+    private static final double REVENUE_TOLERANCE = 0.005;
+
+    private final OrderStatusStatsRepository statsRepository;
+    private final OrderRepository orderRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int slots;
+
+    public OrderStatsService(OrderStatusStatsRepository statsRepository, OrderRepository orderRepository,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${order.stats.slots:8}") int slots) {
+        this.statsRepository = statsRepository;
+        this.orderRepository = orderRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.slots = Math.max(1, slots);
+    }
+
+    // Count a newly saved order under its initial status
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordPlaced(Order order) {
+        apply(order, order.getStatus(), 1);
+    }
+
+    // Move an order's count and total from one status to another
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordTransition(Order order, String fromStatus, String toStatus) {
+        if (Objects.equals(fromStatus, toStatus)) {
+            return;
+        }
+        if (fromStatus != null) {
+            apply(order, fromStatus, -1);
+        }
+        apply(order, toStatus, 1);
+    }
+
+    // Always ALL before the month, so two orders landing on the same slots lock them in the same order
+    private void apply(Order order, String status, int sign) {
+        int slot = Math.floorMod(order.getId(), slots);
+        double revenue = sign * order.getTotalPrice();
+        statsRepository.add(ALL_BUCKET, status, slot, sign, revenue);
+        if (order.getOrderDate() != null) {
+            statsRepository.add(monthBucket(order.getOrderDate()), status, slot, sign, revenue);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public OrderStatsDTO getStats() {
+        Map<String, Totals> all = toTotals(statsRepository.sumByStatus(ALL_BUCKET));
+        Map<String, Totals> month = toTotals(statsRepository.sumByStatus(YearMonth.now().toString()));
+
+        long totalOrders = all.values().stream().mapToLong(t -> t.count).sum();
+        return new OrderStatsDTO(totalOrders, count(all, "PENDING"), count(all, "PAID"), count(all, "SHIPPED"),
+                count(all, "DELIVERED"), count(all, "CANCELLED"), revenue(all), revenue(month));
+    }
+
+    // Recount every month since the first order, then rebuild ALL from the months. Each bucket is fixed in its
+    // own short transaction that locks the bucket's rows first, so status changes committing meanwhile either
+    // land before the recount (and are in it) or wait and apply their delta on top of the rewritten rows.
+    @Scheduled(initialDelayString = "${order.stats.reconcile-initial-delay-ms:60000}",
+               fixedDelayString = "${order.stats.reconcile-interval-ms:21600000}")
+    public void reconcile() {
+        long started = System.currentTimeMillis();
+        Date first = orderRepository.findFirstOrderDate();
+        int corrected = 0;
+        if (first != null) {
+            YearMonth last = YearMonth.now();
+            for (YearMonth month = YearMonth.from(toLocalDate(first)); !month.isAfter(last); month = month.plusMonths(1)) {
+                if (Thread.currentThread().isInterrupted()) {
+                    return;
+                }
+                YearMonth current = month;
+                if (Boolean.TRUE.equals(transactionTemplate.execute(status -> reconcileMonth(current)))) {
+                    corrected++;
+                }
+            }
+        }
+        boolean allCorrected = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            statsRepository.lockBucket(ALL_BUCKET);
+            return rewriteIfDrifted(ALL_BUCKET, toTotals(statsRepository.sumMonthsByStatus()));
+        }));
+
+        if (corrected > 0 || allCorrected) {
+            System.out.println("Order stats reconcile: corrected " + corrected + " month buckets"
+                    + (allCorrected ? " and the ALL bucket" : "") + " in "
+                    + (System.currentTimeMillis() - started) + " ms");
+        }
+    }
+
+    private boolean reconcileMonth(YearMonth month) {
+        String bucket = month.toString();
+        statsRepository.lockBucket(bucket);
+        ZoneId zone = ZoneId.systemDefault();
+        Date from = Date.from(month.atDay(1).atStartOfDay(zone).toInstant());
+        Date to = Date.from(month.plusMonths(1).atDay(1).atStartOfDay(zone).toInstant());
+        return rewriteIfDrifted(bucket, toTotals(orderRepository.summarizeByStatusPlacedBetween(from, to)));
+    }
+
+    // Replace the bucket with one slot per status holding the expected totals, if what it holds differs
+    private boolean rewriteIfDrifted(String bucket, Map<String, Totals> expected) {
+        Map<String, Totals> actual = toTotals(statsRepository.sumByStatus(bucket));
+        Set<String> statuses = new HashSet<>(expected.keySet());
+        statuses.addAll(actual.keySet());
+        boolean drifted = false;
+        for (String status : statuses) {
+            Totals want = expected.getOrDefault(status, Totals.ZERO);
+            Totals have = actual.getOrDefault(status, Totals.ZERO);
+            if (want.count != have.count || Math.abs(want.revenue - have.revenue) > REVENUE_TOLERANCE) {
+                drifted = true;
+                break;
+            }
+        }
+        if (!drifted) {
+            return false;
+        }
+        statsRepository.deleteBucket(bucket);
+        expected.forEach((status, totals) -> {
+            if (totals.count != 0) {
+                statsRepository.add(bucket, status, 0, totals.count, totals.revenue);
+            }
+        });
+        return true;
+    }
+
+    static String monthBucket(Date date) {
+        return YearMonth.from(toLocalDate(date)).toString();
+    }
+
+    private static LocalDate toLocalDate(Date date) {
+        return date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+    }
+
+    private static Map<String, Totals> toTotals(List<Object[]> rows) {
+        Map<String, Totals> totals = new HashMap<>();
+        for (Object[] row : rows) {
+            long count = row[1] == null ? 0 : ((Number) row[1]).longValue();
+            double revenue = row[2] == null ? 0 : ((Number) row[2]).doubleValue();
+            totals.put(String.valueOf(row[0]), new Totals(count, revenue));
+        }
+        return totals;
+    }
+
+    private static long count(Map<String, Totals> totals, String status) {
+        return totals.getOrDefault(status, Totals.ZERO).count;
+    }
+
+    private static double revenue(Map<String, Totals> totals) {
+        return REVENUE_STATUSES.stream()
+                .mapToDouble(status -> totals.getOrDefault(status, Totals.ZERO).revenue)
+                .sum();
+    }
+
+    private static class Totals {
+        static final Totals ZERO = new Totals(0, 0);
+
+        final long count;
+        final double revenue;
+
+        Totals(long count, double revenue) {
+            this.count = count;
+            this.revenue = revenue;
+        }
+    }
+}
@@ -60,7 +60,7 @@ public class PaymentService {
             com.razorpay.Order razorpayOrder = razorpay.orders.create(options);
 
             order.setRazorpayOrderId(razorpayOrder.get("id"));
-            order.setStatus("CREATED"); // Status when Razorpay order is created but not paid
+            orderService.transitionStatus(order, "CREATED"); // Status when Razorpay order is created but not paid
             orderRepository.save(order);
 
             return new PaymentResponse(
@@ -95,15 +95,28 @@ public class PaymentService {
                     throw new RuntimeException("Order not found with razorpayOrderId: " + razorpayOrderId);
                 }
                 
+                // A repeated callback for a payment already recorded is a success, not a failure
+                if ("PAID".equals(order.getStatus()) && paymentId.equals(order.getRazorpayPaymentId())) {
+                    return true;
+                }
+
                 // Check if order is in correct state for payment
-                if (!"CREATED".equals(order.getStatus()) && !"PENDING".equals(order.getStatus())) {
+                if (!orderService.isAwaitingPayment(order)) {
                     throw new RuntimeException("Order is not in correct state for payment. Current status: " + order.getStatus());
                 }
 
                 // Update order status and payment details
-                order.setStatus("PAID");
-                order.setRazorpayPaymentId(paymentId);
-                orderRepository.save(order);
+                try {
+                    orderService.recordPayment(order, paymentId);
+                } catch (IllegalStateException e) {
+                    // Another callback for this payment committed first; the rollback cleared the stale order
+                    Order current = orderRepository.findByRazorpayOrderId(razorpayOrderId);
+                    if (current != null && "PAID".equals(current.getStatus())
+                            && paymentId.equals(current.getRazorpayPaymentId())) {
+                        return true;
+                    }
+                    throw e;
+                }
                 
                 // Now clear the cart since payment is successful
                 orderService.clearCartAfterPayment(order.getId());
@@ -116,11 +129,7 @@ public class PaymentService {
                 System.err.println("Received: " + signature);
                 
                 // Update order status to FAILED
-                Order order = orderRepository.findByRazorpayOrderId(razorpayOrderId);
-                if (order != null) {
-                    order.setStatus("PAYMENT_FAILED");
-                    orderRepository.save(order);
-                }
+                markPaymentFailed(orderRepository.findByRazorpayOrderId(razorpayOrderId));
                 
                 return false;
             }
@@ -129,11 +138,7 @@ public class PaymentService {
             
             // Update order status to FAILED on exception
             try {
-                Order order = orderRepository.findByRazorpayOrderId(razorpayOrderId);
-                if (order != null) {
-                    order.setStatus("PAYMENT_FAILED");
-                    orderRepository.save(order);
-                }
+                markPaymentFailed(orderRepository.findByRazorpayOrderId(razorpayOrderId));
             } catch (Exception dbError) {
                 System.err.println("Failed to update order status to PAYMENT_FAILED: " + dbError.getMessage());
             }
@@ -142,6 +147,17 @@ public class PaymentService {
         }
     }
 
+    // Fail an order that is still waiting for its payment. An order that was paid meanwhile (or already
+    // cancelled) keeps its status and stock, whatever a late or repeated callback says.
+    private boolean markPaymentFailed(Order order) {
+        if (order == null || !orderService.isAwaitingPayment(order)) {
+            return false;
+        }
+        orderService.transitionStatus(order, "PAYMENT_FAILED");
+        orderRepository.save(order);
+        return true;
+    }
+
     // Helper method for HMAC SHA256
     private String HmacSHA256(String data, String secret) throws Exception {
         try {
@@ -166,9 +182,7 @@ public class PaymentService {
     public void handlePaymentFailure(String razorpayOrderId, String reason) {
         try {
             Order order = orderRepository.findByRazorpayOrderId(razorpayOrderId);
-            if (order != null) {
-                order.setStatus("PAYMENT_FAILED");
-                orderRepository.save(order);
+            if (markPaymentFailed(order)) {
                 System.out.println("Payment failed for order: " + order.getId() + ". Reason: " + reason);
             }
         } catch (Exception e) {
@@ -0,0 +1,153 @@
+package com.example.ecommerce.service;
+
+import com.example.ecommerce.dto.ProductCacheStatsDTO;
+import com.example.ecommerce.entity.Product;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Size-bounded, TTL-expiring product cache keyed by id, plus a cached full-catalog snapshot.
+// All state changes happen under the instance lock so an update/invalidate is atomic with respect to readers.
+public class ProductCache {
+
+    private final int maxEntries;
+    private final long ttlMillis;
+
+    // Access-ordered so the eldest entry is always the least recently used one
+    private final LinkedHashMap<Integer, Entry> entries;
+
+    private List<Product> snapshot;
+    private long snapshotLoadedAt;
+
+    // Bumped on every mutation; a load that started under an older generation is discarded instead of cached
+    private long generation;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long expirations;
+    private long snapshotHits;
+    private long snapshotMisses;
+
+    public ProductCache(int maxEntries, long ttlMillis) {
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Entry> eldest) {
+                if (size() > ProductCache.this.maxEntries) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public synchronized Product get(int id) {
+        Entry entry = entries.get(id);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        if (isExpired(entry.loadedAt)) {
+            entries.remove(id);
+            expirations++;
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.product;
+    }
+
+    public synchronized List<Product> getSnapshot() {
+        if (snapshot != null && isExpired(snapshotLoadedAt)) {
+            snapshot = null;
+            expirations++;
+        }
+        if (snapshot == null) {
+            snapshotMisses++;
+            return null;
+        }
+        snapshotHits++;
+        return snapshot;
+    }
+
+    public synchronized long generation() {
+        return generation;
+    }
+
+    // Cache a product loaded from the DB, unless the catalog changed while it was being loaded
+    public synchronized void putIfCurrent(Product product, long loadedGeneration) {
+        if (loadedGeneration == generation) {
+            entries.put(product.getId(), new Entry(product, System.currentTimeMillis()));
+        }
+    }
+
+    // Cache the full catalog; skipped when it would not fit in the configured bound
+    public synchronized void putSnapshotIfCurrent(List<Product> products, long loadedGeneration) {
+        if (loadedGeneration != generation || products.size() > maxEntries) {
+            return;
+        }
+        snapshot = List.copyOf(products);
+        snapshotLoadedAt = System.currentTimeMillis();
+        for (Product product : snapshot) {
+            entries.put(product.getId(), new Entry(product, snapshotLoadedAt));
+        }
+    }
+
+    // Write-through after a product was saved
+    public synchronized void put(Product product) {
+        generation++;
+        snapshot = null;
+        entries.put(product.getId(), new Entry(product, System.currentTimeMillis()));
+    }
+
+    public synchronized void invalidate(int id) {
+        generation++;
+        snapshot = null;
+        entries.remove(id);
+    }
+
+    // Products were added without touching cached entries (bulk import)
+    public synchronized void invalidateSnapshot() {
+        generation++;
+        snapshot = null;
+    }
+
+    public synchronized void invalidateAll() {
+        generation++;
+        snapshot = null;
+        entries.clear();
+    }
+
+    public synchronized ProductCacheStatsDTO stats() {
+        // Drop expired entries so the reported size reflects what can still be served
+        long now = System.currentTimeMillis();
+        Iterator<Entry> it = entries.values().iterator();
+        while (it.hasNext()) {
+            if (now - it.next().loadedAt > ttlMillis) {
+                it.remove();
+                expirations++;
+            }
+        }
+        return new ProductCacheStatsDTO(entries.size(), maxEntries, ttlMillis / 1000, snapshot != null,
+                hits, misses, evictions, expirations, snapshotHits, snapshotMisses);
+    }
+
+    private boolean isExpired(long loadedAt) {
+        return System.currentTimeMillis() - loadedAt > ttlMillis;
+    }
+
+    private static class Entry {
+        private final Product product;
+        private final long loadedAt;
+
+        private Entry(Product product, long loadedAt) {
+            this.product = product;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
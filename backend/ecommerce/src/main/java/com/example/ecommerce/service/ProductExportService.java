@@ -0,0 +1,122 @@
+package com.example.ecommerce.service;
+
+import com.example.ecommerce.entity.Product;
+import com.example.ecommerce.repository.ProductRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+// Whole-catalog export for feeds. Rows come off a forward-only DB cursor and are written straight to the
+// response, and each entity is detached once written, so heap use doesn't grow with the catalog.
+@Service
+public class ProductExportService {
+
+    private static final String CSV_HEADER = "id,name,description,price,imageUrl,thumbnailUrl";
+
+    private final ProductRepository productRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public ProductExportService(ProductRepository productRepository, PlatformTransactionManager transactionManager,
+                                ObjectMapper objectMapper) {
+        this.productRepository = productRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.objectMapper = objectMapper;
+    }
+
+    public StreamingResponseBody exportProducts(DataFormat format, boolean gzip) {
+        return responseStream -> {
+            OutputStream out = gzip ? new GZIPOutputStream(responseStream, 64 * 1024) : responseStream;
+            try {
+                if (format == DataFormat.CSV) {
+                    writeCsv(out);
+                } else {
+                    writeNdjson(out);
+                }
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            if (out instanceof GZIPOutputStream gzipOut) {
+                gzipOut.finish();
+            }
+        };
+    }
+
+    private void writeCsv(OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        forEachProduct(product -> {
+            try {
+                writer.write(Integer.toString(product.getId()));
+                writer.write(',');
+                writer.write(Csv.escape(product.getName()));
+                writer.write(',');
+                writer.write(Csv.escape(product.getDescription()));
+                writer.write(',');
+                writer.write(Double.toString(product.getPrice()));
+                writer.write(',');
+                writer.write(Csv.escape(product.getImageUrl()));
+                writer.write(',');
+                writer.write(Csv.escape(product.getThumbnailUrl()));
+                writer.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        writer.flush();
+    }
+
+    private void writeNdjson(OutputStream out) throws IOException {
+        JsonGenerator json = objectMapper.getFactory().createGenerator(out);
+        json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        forEachProduct(product -> {
+            try {
+                json.writeStartObject();
+                json.writeNumberField("id", product.getId());
+                json.writeStringField("name", product.getName());
+                json.writeStringField("description", product.getDescription());
+                json.writeNumberField("price", product.getPrice());
+                json.writeStringField("imageUrl", product.getImageUrl());
+                json.writeStringField("thumbnailUrl", product.getThumbnailUrl());
+                json.writeEndObject();
+                json.writeRaw('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        json.flush();
+    }
+
+    // Runs on the async request thread, so it opens its own read-only transaction for the cursor
+    private void forEachProduct(Consumer<Product> consumer) {
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<Product> products = productRepository.streamAllOrderedById()) {
+                products.forEach(product -> {
+                    consumer.accept(product);
+                    entityManager.detach(product);
+                });
+            }
+        });
+    }
+}
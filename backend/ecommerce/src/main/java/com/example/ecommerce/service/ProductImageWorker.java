@@ -0,0 +1,241 @@
+package com.example.ecommerce.service;
+
+import com.example.ecommerce.entity.Product;
+import com.example.ecommerce.repository.ProductRepository;
+import com.example.ecommerce.storage.ImageStorage;
+import com.example.ecommerce.storage.StoredImage;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntConsumer;
+
+// Uploads and deletes product images off the request thread. A fixed pool of workers caps concurrent calls
+// to the image host, a bounded number of queued jobs keeps spooled files from piling up on disk, and failed
+// calls are retried with exponential backoff before the product is marked FAILED.
+@Component
+public class ProductImageWorker {
+
+    private final ImageStorage imageStorage;
+    private final ProductRepository productRepository;
+    private final ScheduledThreadPoolExecutor executor;
+    private final int queueCapacity;
+    private final int maxAttempts;
+    private final long retryBackoffMillis;
+
+    // Jobs accepted but not yet finished (including ones waiting for a retry)
+    private final AtomicInteger queuedJobs = new AtomicInteger();
+    // Latest upload per product, so an older upload finishing late never overwrites a newer image
+    private final Map<Integer, Long> latestUpload = new ConcurrentHashMap<>();
+    private final AtomicLong uploadSequence = new AtomicLong();
+
+    public ProductImageWorker(ImageStorage imageStorage, ProductRepository productRepository,
+                              @Value("${catalog.image.max-concurrent-uploads:2}") int workers,
+                              @Value("${catalog.image.queue-capacity:100}") int queueCapacity,
+                              @Value("${catalog.image.max-attempts:3}") int maxAttempts,
+                              @Value("${catalog.image.retry-backoff-ms:2000}") long retryBackoffMillis) {
+        this.imageStorage = imageStorage;
+        this.productRepository = productRepository;
+        this.queueCapacity = queueCapacity;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.retryBackoffMillis = retryBackoffMillis;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ScheduledThreadPoolExecutor(Math.max(1, workers), r -> {
+            Thread thread = new Thread(r, "product-image-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Don't hold shutdown hostage to jobs waiting out a retry delay
+        this.executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+    }
+
+    // An uploaded file copied out of the request, holding a queue slot until its job finishes
+    public static class PendingImage {
+        private final Path file;
+        private final String originalFilename;
+
+        private PendingImage(Path file, String originalFilename) {
+            this.file = file;
+            this.originalFilename = originalFilename;
+        }
+    }
+
+    // Copy the multipart file to our own temp file in the request thread (the container removes its copy
+    // when the request ends). Fails fast when the queue is full so the caller can reject the request.
+    public PendingImage spool(MultipartFile imageFile) throws IOException {
+        if (queuedJobs.incrementAndGet() > queueCapacity) {
+            queuedJobs.decrementAndGet();
+            throw new IOException("Image processing queue is full, try again later");
+        }
+        try {
+            Path file = Files.createTempFile("product-image-", ".upload");
+            try {
+                imageFile.transferTo(file.toFile());
+            } catch (IOException | RuntimeException e) {
+                Files.deleteIfExists(file);
+                throw e;
+            }
+            return new PendingImage(file, imageFile.getOriginalFilename());
+        } catch (IOException | RuntimeException e) {
+            queuedJobs.decrementAndGet();
+            throw e;
+        }
+    }
+
+    // Give back a spooled image that will never be submitted (e.g. the product save failed)
+    public void discard(PendingImage image) {
+        deleteSpool(image);
+        queuedJobs.decrementAndGet();
+    }
+
+    // Upload the image for a saved product; onUpdated runs once the product row points at the new image
+    public void submitUpload(int productId, PendingImage image, IntConsumer onUpdated) {
+        long sequence = uploadSequence.incrementAndGet();
+        latestUpload.put(productId, sequence);
+        try {
+            executor.execute(() -> runUpload(productId, sequence, image, 1, onUpdated));
+        } catch (RejectedExecutionException e) {
+            // Shutting down: the product stays PENDING
+            latestUpload.remove(productId, sequence);
+            discard(image);
+        }
+    }
+
+    // Delete a stored image in the background; a full queue leaves an orphan rather than failing the caller
+    public void submitDelete(String publicId) {
+        if (queuedJobs.incrementAndGet() > queueCapacity) {
+            queuedJobs.decrementAndGet();
+            System.out.println("Image queue full, leaving orphaned image " + publicId);
+            return;
+        }
+        enqueueDelete(publicId);
+    }
+
+    // Deletes that follow an upload skip the capacity check: there is at most one per upload, which
+    // already held a slot
+    private void deleteAfterUpload(String publicId) {
+        queuedJobs.incrementAndGet();
+        enqueueDelete(publicId);
+    }
+
+    private void enqueueDelete(String publicId) {
+        try {
+            executor.execute(() -> runDelete(publicId, 1));
+        } catch (RejectedExecutionException e) {
+            queuedJobs.decrementAndGet();
+            System.out.println("Image worker stopped, leaving orphaned image " + publicId);
+        }
+    }
+
+    // Drop any in-flight upload for a deleted product; it is cleaned up when it finishes
+    public void forgetProduct(int productId) {
+        latestUpload.remove(productId);
+    }
+
+    public int getQueuedJobs() {
+        return queuedJobs.get();
+    }
+
+    private void runUpload(int productId, long sequence, PendingImage image, int attempt, IntConsumer onUpdated) {
+        StoredImage stored;
+        try {
+            stored = imageStorage.store(image.file, image.originalFilename);
+        } catch (Exception e) {
+            // A rejected image (IllegalArgumentException) fails the same way on every attempt
+            if (attempt < maxAttempts && !(e instanceof IllegalArgumentException) && !executor.isShutdown()) {
+                System.out.println("Image upload for product " + productId + " failed (attempt " + attempt
+                        + "), retrying: " + e.getMessage());
+                executor.schedule(() -> runUpload(productId, sequence, image, attempt + 1, onUpdated),
+                        backoff(attempt), TimeUnit.MILLISECONDS);
+                return;
+            }
+            System.out.println("Image upload for product " + productId + " failed: " + e.getMessage());
+            try {
+                if (latestUpload.remove(productId, sequence)) {
+                    productRepository.updateImageStatus(productId, Product.IMAGE_FAILED);
+                    onUpdated.accept(productId);
+                }
+            } finally {
+                discard(image);
+            }
+            return;
+        }
+
+        try {
+            if (applyUpload(productId, sequence, stored)) {
+                onUpdated.accept(productId);
+            }
+        } catch (RuntimeException e) {
+            System.out.println("Failed to record image for product " + productId + ": " + e.getMessage());
+            deleteAfterUpload(stored.getPublicId());
+        } finally {
+            discard(image);
+        }
+    }
+
+    // Point the product at the uploaded image and queue removal of whatever it replaced. Serialized so two
+    // uploads for the same product can't both read the same "old" image.
+    private synchronized boolean applyUpload(int productId, long sequence, StoredImage stored) {
+        Optional<Product> current = latestUpload.getOrDefault(productId, -1L) == sequence
+                ? productRepository.findById(productId)
+                : Optional.empty();
+        if (current.isEmpty()) {
+            // Superseded by a newer upload, or the product was deleted meanwhile
+            deleteAfterUpload(stored.getPublicId());
+            return false;
+        }
+        String oldPublicId = current.get().getImagePublicId();
+        productRepository.updateImage(productId, stored.getUrl(), stored.getThumbnailUrl(), stored.getPublicId(),
+                Product.IMAGE_READY);
+        latestUpload.remove(productId, sequence);
+        if (oldPublicId != null && !oldPublicId.equals(stored.getPublicId())) {
+            deleteAfterUpload(oldPublicId);
+        }
+        return true;
+    }
+
+    private void runDelete(String publicId, int attempt) {
+        try {
+            imageStorage.delete(publicId);
+        } catch (Exception e) {
+            // A rejected image (IllegalArgumentException) fails the same way on every attempt
+            if (attempt < maxAttempts && !(e instanceof IllegalArgumentException) && !executor.isShutdown()) {
+                executor.schedule(() -> runDelete(publicId, attempt + 1), backoff(attempt), TimeUnit.MILLISECONDS);
+                return;
+            }
+            System.out.println("Failed to delete image " + publicId + ": " + e.getMessage());
+        }
+        queuedJobs.decrementAndGet();
+    }
+
+    private long backoff(int attempt) {
+        return retryBackoffMillis << (attempt - 1);
+    }
+
+    private void deleteSpool(PendingImage image) {
+        try {
+            Files.deleteIfExists(image.file);
+        } catch (IOException e) {
+            System.out.println("Failed to delete spooled image " + image.file + ": " + e.getMessage());
+        }
+    }
+
+    // Let running uploads finish; anything still queued stays PENDING
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+}
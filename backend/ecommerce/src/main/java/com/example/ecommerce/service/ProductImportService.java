@@ -0,0 +1,262 @@
+package com.example.ecommerce.service;
+
+import com.example.ecommerce.dto.ProductImportResultDTO;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Bulk product import from streamed CSV or NDJSON. Rows are parsed and validated one at a time and inserted
+// with plain JDBC batches (one transaction per batch), so memory use is bounded by the batch size and a bad
+// row only skips that row.
+@Service
+public class ProductImportService {
+
+    // Products keep IDENTITY ids; the MySQL driver folds each batch into one multi-row INSERT
+    // (rewriteBatchedStatements=true on the datasource URL)
+    private static final String INSERT_SQL = "INSERT INTO products (name, description, price) VALUES (?, ?, ?)";
+    private static final int MAX_TEXT_LENGTH = 255;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final ProductService productService;
+    private final int batchSize;
+    private final int maxReportedErrors;
+    // One import at a time keeps the catalog re-index simple and leaves pool connections for normal traffic
+    private final ReentrantLock importLock = new ReentrantLock();
+
+    public ProductImportService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                ObjectMapper objectMapper, ProductService productService,
+                                @Value("${catalog.import.batch-size:500}") int batchSize,
+                                @Value("${catalog.import.max-reported-errors:100}") int maxReportedErrors) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.productService = productService;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    private static class Row {
+        final int number;
+        final String name;
+        final String description;
+        final double price;
+
+        Row(int number, String name, String description, double price) {
+            this.number = number;
+            this.name = name;
+            this.description = description;
+            this.price = price;
+        }
+    }
+
+    public ProductImportResultDTO importProducts(InputStream body, DataFormat format) throws IOException {
+        if (!importLock.tryLock()) {
+            throw new IllegalStateException("A product import is already running");
+        }
+        try {
+            return runImport(body, format);
+        } finally {
+            importLock.unlock();
+        }
+    }
+
+    private ProductImportResultDTO runImport(InputStream body, DataFormat format) throws IOException {
+        long start = System.currentTimeMillis();
+        ProductImportResultDTO result = new ProductImportResultDTO();
+        result.setFormat(format.getExtension());
+        Integer maxIdBefore = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM products", Integer.class);
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        List<Row> batch = new ArrayList<>(batchSize);
+        if (format == DataFormat.CSV) {
+            readCsv(reader, result, batch);
+        } else {
+            readNdjson(reader, result, batch);
+        }
+        flush(batch, result);
+
+        if (result.getImported() > 0) {
+            productService.indexImportedProducts(maxIdBefore == null ? 0 : maxIdBefore);
+        }
+        result.setElapsedMillis(System.currentTimeMillis() - start);
+        result.setRowsPerSecond(result.getImported() * 1000.0 / Math.max(1, result.getElapsedMillis()));
+        System.out.println("Product import: " + result.getImported() + " imported, " + result.getFailed()
+                + " failed in " + result.getElapsedMillis() + " ms");
+        return result;
+    }
+
+    // CSV needs a header row naming at least the name and price columns; other columns are ignored
+    private void readCsv(BufferedReader reader, ProductImportResultDTO result, List<Row> batch) throws IOException {
+        List<String> header = Csv.readRecord(reader);
+        if (header == null) {
+            return;
+        }
+        if (!header.isEmpty() && header.get(0).startsWith("\uFEFF")) {
+            header.set(0, header.get(0).substring(1)); // UTF-8 byte order mark from spreadsheet exports
+        }
+        int nameColumn = -1, descriptionColumn = -1, priceColumn = -1;
+        for (int i = 0; i < header.size(); i++) {
+            switch (header.get(i).trim().toLowerCase(Locale.ROOT)) {
+                case "name" -> nameColumn = i;
+                case "description" -> descriptionColumn = i;
+                case "price" -> priceColumn = i;
+                default -> { }
+            }
+        }
+        if (nameColumn < 0 || priceColumn < 0) {
+            throw new IllegalArgumentException("CSV header must include name and price columns");
+        }
+
+        int rowNumber = 0;
+        while (true) {
+            List<String> record;
+            try {
+                record = Csv.readRecord(reader);
+            } catch (IllegalArgumentException e) {
+                // Unterminated quote swallowed the rest of the input
+                reject(result, rowNumber + 1, e.getMessage());
+                break;
+            }
+            if (record == null) {
+                break;
+            }
+            if (record.size() == 1 && record.get(0).isBlank()) {
+                continue;
+            }
+            rowNumber++;
+            try {
+                add(batch, result, validate(rowNumber, field(record, nameColumn), field(record, descriptionColumn),
+                        parsePrice(field(record, priceColumn))));
+            } catch (IllegalArgumentException e) {
+                reject(result, rowNumber, e.getMessage());
+            }
+        }
+    }
+
+    // One JSON object per line: {"name": ..., "description": ..., "price": ...}
+    private void readNdjson(BufferedReader reader, ProductImportResultDTO result, List<Row> batch) throws IOException {
+        int rowNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            rowNumber++;
+            try {
+                JsonNode node;
+                try {
+                    node = objectMapper.readTree(line);
+                } catch (IOException e) {
+                    throw new IllegalArgumentException("Invalid JSON");
+                }
+                if (!node.isObject()) {
+                    throw new IllegalArgumentException("Expected a JSON object");
+                }
+                JsonNode price = node.get("price");
+                Double parsedPrice = price == null || price.isNull() ? null
+                        : price.isNumber() ? Double.valueOf(price.doubleValue()) : parsePrice(price.asText());
+                add(batch, result, validate(rowNumber, text(node, "name"), text(node, "description"), parsedPrice));
+            } catch (IllegalArgumentException e) {
+                reject(result, rowNumber, e.getMessage());
+            }
+        }
+    }
+
+    private void add(List<Row> batch, ProductImportResultDTO result, Row row) {
+        result.setRowsRead(result.getRowsRead() + 1);
+        batch.add(row);
+        if (batch.size() >= batchSize) {
+            flush(batch, result);
+        }
+    }
+
+    private void flush(List<Row> batch, ProductImportResultDTO result) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, row) -> {
+                        ps.setString(1, row.name);
+                        ps.setString(2, row.description);
+                        ps.setDouble(3, row.price);
+                    }));
+            result.setImported(result.getImported() + batch.size());
+            result.setBatches(result.getBatches() + 1);
+        } catch (DataAccessException e) {
+            // The whole batch rolled back; report each of its rows and keep going
+            String message = "Batch insert failed: " + e.getMostSpecificCause().getMessage();
+            for (Row row : batch) {
+                reject(result, row.number, message);
+            }
+            result.setRowsRead(result.getRowsRead() - batch.size());
+        }
+        batch.clear();
+    }
+
+    private void reject(ProductImportResultDTO result, int rowNumber, String message) {
+        result.setRowsRead(result.getRowsRead() + 1);
+        result.setFailed(result.getFailed() + 1);
+        if (result.getErrors().size() < maxReportedErrors) {
+            result.getErrors().add(new ProductImportResultDTO.RowError(rowNumber, message));
+        } else {
+            result.setErrorsTruncated(true);
+        }
+    }
+
+    private static Row validate(int rowNumber, String name, String description, Double price) {
+        if (name == null || name.isBlank()) {
+            throw new IllegalArgumentException("name is required");
+        }
+        if (name.length() > MAX_TEXT_LENGTH) {
+            throw new IllegalArgumentException("name is longer than " + MAX_TEXT_LENGTH + " characters");
+        }
+        if (description != null && description.length() > MAX_TEXT_LENGTH) {
+            throw new IllegalArgumentException("description is longer than " + MAX_TEXT_LENGTH + " characters");
+        }
+        if (price == null) {
+            throw new IllegalArgumentException("price is required");
+        }
+        if (price.isNaN() || price.isInfinite() || price < 0) {
+            throw new IllegalArgumentException("price must be a non-negative number");
+        }
+        return new Row(rowNumber, name.trim(), description == null || description.isEmpty() ? null : description, price);
+    }
+
+    private static Double parsePrice(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Double.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("price is not a number: " + value);
+        }
+    }
+
+    private static String field(List<String> record, int column) {
+        return column >= 0 && column < record.size() ? record.get(column) : null;
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+}
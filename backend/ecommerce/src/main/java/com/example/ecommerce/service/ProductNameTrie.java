@@ -0,0 +1,393 @@
+package com.example.ecommerce.service;
+
+import com.example.ecommerce.dto.ProductSuggestionDTO;
+import com.example.ecommerce.entity.Product;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Type-ahead index over product names. Every name is inserted once per word start ("red running shoe",
+// "running shoe", "shoe") so a prefix matches the beginning of any word. The trie is path-compressed
+// (edges carry string labels, children sit in arrays sorted by first char) to keep node count close to
+// the number of keys, and each node lazily caches its best MAX_SUGGESTIONS products by popularity;
+// a change only invalidates the cached lists on the paths of the affected product.
+@Component
+public class ProductNameTrie {
+
+    public static final int MAX_SUGGESTIONS = 10;
+
+    private static final char[] NO_KEYS = new char[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+    private static final int[] NO_IDS = new int[0];
+
+    private final Node root = new Node();
+    private final Map<Integer, String> names = new HashMap<>();
+    private final Map<Integer, Long> popularity = new HashMap<>();
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Ranking: most ordered first, then alphabetical
+    private final Comparator<Integer> ranking = Comparator
+            .comparing((Integer id) -> popularity.getOrDefault(id, 0L)).reversed()
+            .thenComparing(names::get);
+
+    // Add or replace a product name
+    public void index(Product product) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(product.getId());
+            String name = normalize(product.getName());
+            if (name.isEmpty()) {
+                return;
+            }
+            names.put(product.getId(), product.getName());
+            for (String key : keys(name)) {
+                insert(key, product.getId());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int productId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Replace all popularity scores (used when loading order counts at startup)
+    public void setPopularity(Map<Integer, Long> counts) {
+        lock.writeLock().lock();
+        try {
+            popularity.clear();
+            popularity.putAll(counts);
+            invalidate(root);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Compute every cached ranking up front so the first keystrokes after startup are not slow
+    public void warmUp() {
+        lock.writeLock().lock();
+        try {
+            top(root);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void incrementPopularity(int productId, long delta) {
+        lock.writeLock().lock();
+        try {
+            popularity.merge(productId, delta, Long::sum);
+            String name = names.get(productId);
+            if (name != null) {
+                invalidatePaths(normalize(name));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Most popular products whose name (or a word in it) starts with the prefix
+    public List<ProductSuggestionDTO> suggest(String prefix, int limit) {
+        String key = normalize(prefix);
+        if (key.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        lock.readLock().lock();
+        try {
+            Node node = find(key);
+            if (node == null) {
+                return Collections.emptyList();
+            }
+            if (node.top != null) {
+                return toSuggestions(node.top, limit);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        // Cached ranking is stale on this path: recompute under the write lock
+        lock.writeLock().lock();
+        try {
+            Node node = find(key);
+            return node == null ? Collections.emptyList() : toSuggestions(top(node), limit);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private List<ProductSuggestionDTO> toSuggestions(int[] ids, int limit) {
+        List<ProductSuggestionDTO> suggestions = new ArrayList<>();
+        for (int i = 0; i < ids.length && i < limit; i++) {
+            int id = ids[i];
+            suggestions.add(new ProductSuggestionDTO(id, names.get(id), popularity.getOrDefault(id, 0L)));
+        }
+        return suggestions;
+    }
+
+    // Best products under a node: k-way merge of its own terminals and the children's cached
+    // (already ranked) lists, stopping after MAX_SUGGESTIONS distinct products
+    private int[] top(Node node) {
+        if (node.top != null) {
+            return node.top;
+        }
+        // Chains of single-child nodes (the bulk of the trie) share their child's list
+        if (node.terminalCount == 0 && node.children.length == 1) {
+            node.top = top(node.children[0]);
+            return node.top;
+        }
+
+        List<int[]> lists = new ArrayList<>(node.children.length + 1);
+        if (node.terminalCount > 0) {
+            lists.add(bestTerminals(node));
+        }
+        for (Node child : node.children) {
+            lists.add(top(child));
+        }
+
+        int[] heads = new int[lists.size()];
+        int[] merged = new int[MAX_SUGGESTIONS];
+        int size = 0;
+        while (size < MAX_SUGGESTIONS) {
+            int best = -1;
+            for (int l = 0; l < lists.size(); l++) {
+                int[] list = lists.get(l);
+                // Skip entries already taken through another branch (names indexed under several word starts)
+                while (heads[l] < list.length && contains(merged, size, list[heads[l]])) {
+                    heads[l]++;
+                }
+                if (heads[l] < list.length && (best < 0
+                        || ranking.compare(list[heads[l]], lists.get(best)[heads[best]]) < 0)) {
+                    best = l;
+                }
+            }
+            if (best < 0) {
+                break;
+            }
+            merged[size++] = lists.get(best)[heads[best]++];
+        }
+        node.top = Arrays.copyOf(merged, size);
+        return node.top;
+    }
+
+    // Best MAX_SUGGESTIONS of a node's own products, via a bounded heap rather than a full sort
+    private int[] bestTerminals(Node node) {
+        PriorityQueue<Integer> worstFirst = new PriorityQueue<>(ranking.reversed());
+        for (int i = 0; i < node.terminalCount; i++) {
+            worstFirst.offer(node.terminals[i]);
+            if (worstFirst.size() > MAX_SUGGESTIONS) {
+                worstFirst.poll();
+            }
+        }
+        int[] ranked = new int[worstFirst.size()];
+        for (int i = ranked.length - 1; i >= 0; i--) {
+            ranked[i] = worstFirst.poll();
+        }
+        return ranked;
+    }
+
+    private static boolean contains(int[] ids, int size, int id) {
+        for (int i = 0; i < size; i++) {
+            if (ids[i] == id) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void insert(String key, int productId) {
+        Node node = root;
+        node.top = null;
+        int pos = 0;
+        while (pos < key.length()) {
+            Node child = node.child(key.charAt(pos));
+            if (child == null) {
+                Node leaf = node.addChild(key.substring(pos));
+                leaf.addTerminal(productId);
+                return;
+            }
+            int common = commonPrefix(child.label, key, pos);
+            if (common < child.label.length()) {
+                // Split the edge so the shared part becomes its own node
+                child = node.splitChild(child, common);
+            }
+            child.top = null;
+            node = child;
+            pos += common;
+        }
+        node.addTerminal(productId);
+    }
+
+    // Node whose subtree holds every key starting with the prefix
+    private Node find(String prefix) {
+        Node node = root;
+        int pos = 0;
+        while (pos < prefix.length()) {
+            Node child = node.child(prefix.charAt(pos));
+            if (child == null) {
+                return null;
+            }
+            int common = commonPrefix(child.label, prefix, pos);
+            if (pos + common == prefix.length()) {
+                return child; // prefix ends on or inside this edge
+            }
+            if (common < child.label.length()) {
+                return null;
+            }
+            node = child;
+            pos += common;
+        }
+        return node;
+    }
+
+    // Node at the exact end of a key, invalidating cached rankings on the way; null if the key is absent
+    private Node walkExact(String key) {
+        Node node = root;
+        node.top = null;
+        int pos = 0;
+        while (pos < key.length()) {
+            Node child = node.child(key.charAt(pos));
+            if (child == null || !key.startsWith(child.label, pos)) {
+                return null;
+            }
+            child.top = null;
+            node = child;
+            pos += child.label.length();
+        }
+        return node;
+    }
+
+    private static int commonPrefix(String label, String key, int from) {
+        int max = Math.min(label.length(), key.length() - from);
+        int i = 0;
+        while (i < max && label.charAt(i) == key.charAt(from + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private void removeLocked(int productId) {
+        String name = names.remove(productId);
+        if (name == null) {
+            return;
+        }
+        for (String key : keys(normalize(name))) {
+            Node node = walkExact(key);
+            if (node != null) {
+                node.removeTerminal(productId);
+            }
+        }
+        // Empty branches are left in place; they are reused when names are re-added
+    }
+
+    private void invalidatePaths(String name) {
+        for (String key : keys(name)) {
+            walkExact(key);
+        }
+    }
+
+    private void invalidate(Node node) {
+        node.top = null;
+        for (Node child : node.children) {
+            invalidate(child);
+        }
+    }
+
+    // The full name plus every suffix that starts at a word boundary
+    private static List<String> keys(String name) {
+        List<String> keys = new ArrayList<>();
+        keys.add(name);
+        for (int i = 1; i < name.length(); i++) {
+            if (name.charAt(i - 1) == ' ') {
+                keys.add(name.substring(i));
+            }
+        }
+        return keys;
+    }
+
+    // Lower-case and collapse punctuation/whitespace runs to single spaces
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        return text.toLowerCase(Locale.ROOT).replaceAll("[^\\p{L}\\p{Nd}]+", " ").trim();
+    }
+
+    private static class Node {
+        private String label = "";           // edge label from the parent
+        private char[] keys = NO_KEYS;       // first char of each child's label, sorted
+        private Node[] children = NO_CHILDREN;
+        private int[] terminals = NO_IDS;
+        private int terminalCount;
+        private int[] top;
+
+        private Node child(char c) {
+            int i = Arrays.binarySearch(keys, c);
+            return i >= 0 ? children[i] : null;
+        }
+
+        private Node addChild(String label) {
+            Node child = new Node();
+            child.label = label;
+            int at = -Arrays.binarySearch(keys, label.charAt(0)) - 1;
+            char[] newKeys = new char[keys.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, at);
+            System.arraycopy(children, 0, newChildren, 0, at);
+            newKeys[at] = label.charAt(0);
+            newChildren[at] = child;
+            System.arraycopy(keys, at, newKeys, at + 1, keys.length - at);
+            System.arraycopy(children, at, newChildren, at + 1, children.length - at);
+            keys = newKeys;
+            children = newChildren;
+            return child;
+        }
+
+        // Insert a node for the first `length` chars of the child's label between this node and the child
+        private Node splitChild(Node child, int length) {
+            Node middle = new Node();
+            middle.label = child.label.substring(0, length);
+            child.label = child.label.substring(length);
+            middle.keys = new char[] { child.label.charAt(0) };
+            middle.children = new Node[] { child };
+            children[Arrays.binarySearch(keys, middle.label.charAt(0))] = middle;
+            return middle;
+        }
+
+        private void addTerminal(int productId) {
+            for (int i = 0; i < terminalCount; i++) {
+                if (terminals[i] == productId) {
+                    return;
+                }
+            }
+            if (terminalCount == terminals.length) {
+                terminals = Arrays.copyOf(terminals, Math.max(2, terminalCount * 2));
+            }
+            terminals[terminalCount++] = productId;
+        }
+
+        private void removeTerminal(int productId) {
+            for (int i = 0; i < terminalCount; i++) {
+                if (terminals[i] == productId) {
+                    terminals[i] = terminals[--terminalCount];
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.example.ecommerce.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+// Products sorted by (price, id) in two parallel primitive arrays. Readers binary-search an immutable
+// snapshot without locking; writers copy-on-write a new snapshot (product edits are rare next to reads).
+@Component
+public class ProductPriceIndex {
+
+    private static final Snapshot EMPTY = new Snapshot(new double[0], new int[0]);
+
+    private volatile Snapshot snapshot = EMPTY;
+    private volatile boolean loaded;
+
+    // Current price of every indexed product, to locate its slot on update/removal (writers only)
+    private final Map<Integer, Double> priceById = new HashMap<>();
+
+    // Replace the whole index (startup)
+    public synchronized void load(int[] ids, double[] prices) {
+        rebuild(ids, prices);
+        loaded = true;
+    }
+
+    // Insert or move many products with one rebuild instead of a copy per product (bulk import)
+    public synchronized void putAll(int[] ids, double[] prices) {
+        Map<Integer, Double> merged = new HashMap<>(priceById);
+        for (int i = 0; i < ids.length; i++) {
+            merged.put(ids[i], prices[i]);
+        }
+        int[] allIds = new int[merged.size()];
+        double[] allPrices = new double[merged.size()];
+        int i = 0;
+        for (Map.Entry<Integer, Double> entry : merged.entrySet()) {
+            allIds[i] = entry.getKey();
+            allPrices[i++] = entry.getValue();
+        }
+        rebuild(allIds, allPrices);
+    }
+
+    private void rebuild(int[] ids, double[] prices) {
+        Integer[] order = new Integer[ids.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> compare(prices[a], ids[a], prices[b], ids[b]));
+
+        double[] sortedPrices = new double[ids.length];
+        int[] sortedIds = new int[ids.length];
+        priceById.clear();
+        for (int i = 0; i < order.length; i++) {
+            sortedPrices[i] = prices[order[i]];
+            sortedIds[i] = ids[order[i]];
+            priceById.put(sortedIds[i], sortedPrices[i]);
+        }
+        snapshot = new Snapshot(sortedPrices, sortedIds);
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    // Insert or move a product
+    public synchronized void put(int id, double price) {
+        Snapshot current = snapshot;
+        Double oldPrice = priceById.get(id);
+        if (oldPrice != null && oldPrice == price) {
+            return;
+        }
+        double[] prices = current.prices;
+        int[] ids = current.ids;
+        if (oldPrice != null) {
+            int at = current.firstAtOrAfter(oldPrice, id, true);
+            prices = removeAt(prices, at);
+            ids = removeAt(ids, at);
+        }
+        Snapshot without = new Snapshot(prices, ids);
+        int at = without.firstAtOrAfter(price, id, true);
+        snapshot = new Snapshot(insertAt(prices, at, price), insertAt(ids, at, id));
+        priceById.put(id, price);
+    }
+
+    public synchronized void remove(int id) {
+        Double oldPrice = priceById.remove(id);
+        if (oldPrice == null) {
+            return;
+        }
+        Snapshot current = snapshot;
+        int at = current.firstAtOrAfter(oldPrice, id, true);
+        snapshot = new Snapshot(removeAt(current.prices, at), removeAt(current.ids, at));
+    }
+
+    // Up to `limit` entries within [minPrice, maxPrice] (either bound optional) strictly after the given
+    // (price, id) position in the requested direction; O(log n + limit)
+    public Slice page(Double minPrice, Double maxPrice, Double afterPrice, Integer afterId,
+                      boolean descending, int limit) {
+        Snapshot s = snapshot;
+        int n = s.ids.length;
+        // [lo, hi) is the price band
+        int lo = minPrice == null ? 0 : s.firstAtOrAfter(minPrice, Integer.MIN_VALUE, true);
+        int hi = maxPrice == null ? n : s.firstAtOrAfter(maxPrice, Integer.MAX_VALUE, false);
+
+        int from;
+        int to;
+        if (!descending) {
+            if (afterPrice != null) {
+                lo = Math.max(lo, s.firstAtOrAfter(afterPrice, afterId, false));
+            }
+            from = lo;
+            to = Math.min(hi, lo + limit);
+        } else {
+            if (afterPrice != null) {
+                hi = Math.min(hi, s.firstAtOrAfter(afterPrice, afterId, true));
+            }
+            from = Math.max(lo, hi - limit);
+            to = hi;
+        }
+
+        int size = Math.max(0, to - from);
+        int[] ids = new int[size];
+        double[] prices = new double[size];
+        for (int i = 0; i < size; i++) {
+            int at = descending ? to - 1 - i : from + i;
+            ids[i] = s.ids[at];
+            prices[i] = s.prices[at];
+        }
+        boolean hasMore = descending ? from > lo : to < hi;
+        return new Slice(ids, prices, hasMore);
+    }
+
+    private static int compare(double priceA, int idA, double priceB, int idB) {
+        int byPrice = Double.compare(priceA, priceB);
+        return byPrice != 0 ? byPrice : Integer.compare(idA, idB);
+    }
+
+    private static double[] insertAt(double[] array, int at, double value) {
+        double[] result = new double[array.length + 1];
+        System.arraycopy(array, 0, result, 0, at);
+        result[at] = value;
+        System.arraycopy(array, at, result, at + 1, array.length - at);
+        return result;
+    }
+
+    private static int[] insertAt(int[] array, int at, int value) {
+        int[] result = new int[array.length + 1];
+        System.arraycopy(array, 0, result, 0, at);
+        result[at] = value;
+        System.arraycopy(array, at, result, at + 1, array.length - at);
+        return result;
+    }
+
+    private static double[] removeAt(double[] array, int at) {
+        double[] result = new double[array.length - 1];
+        System.arraycopy(array, 0, result, 0, at);
+        System.arraycopy(array, at + 1, result, at, array.length - at - 1);
+        return result;
+    }
+
+    private static int[] removeAt(int[] array, int at) {
+        int[] result = new int[array.length - 1];
+        System.arraycopy(array, 0, result, 0, at);
+        System.arraycopy(array, at + 1, result, at, array.length - at - 1);
+        return result;
+    }
+
+    private static class Snapshot {
+        private final double[] prices;
+        private final int[] ids;
+
+        private Snapshot(double[] prices, int[] ids) {
+            this.prices = prices;
+            this.ids = ids;
+        }
+
+        // First index whose (price, id) is >= the key (inclusive) or > the key (exclusive)
+        private int firstAtOrAfter(double price, int id, boolean inclusive) {
+            int low = 0;
+            int high = ids.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                int cmp = compare(prices[mid], ids[mid], price, id);
+                if (cmp < 0 || (!inclusive && cmp == 0)) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+
+    // One page of ids in display order, with their indexed prices for building the next cursor
+    public static class Slice {
+        private final int[] ids;
+        private final double[] prices;
+        private final boolean hasMore;
+
+        private Slice(int[] ids, double[] prices, boolean hasMore) {
+            this.ids = ids;
+            this.prices = prices;
+            this.hasMore = hasMore;
+        }
+
+        public int[] getIds() { return ids; }
+
+        public double[] getPrices() { return prices; }
+
+        public boolean hasMore() { return hasMore; }
+    }
+}
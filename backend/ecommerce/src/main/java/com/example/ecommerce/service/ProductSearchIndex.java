@@ -0,0 +1,342 @@
+package com.example.ecommerce.service;
+
+import com.example.ecommerce.entity.Product;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// In-memory inverted index over product name and description with prefix matching and BM25 ranking.
+// Updated one product at a time, so it never needs a full rebuild after startup.
+// Postings are primitive arrays over dense document ordinals, so scoring is a tight loop over int[]/double[].
+@Component
+public class ProductSearchIndex {
+
+    // BM25 parameters
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    // Name matches count more than description matches
+    private static final int NAME_WEIGHT = 3;
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    // Prefix expansion: minimum prefix length, max expanded terms per query token, score factor for non-exact terms
+    private static final int MIN_PREFIX_LENGTH = 2;
+    private static final int MAX_PREFIX_EXPANSIONS = 50;
+    private static final double PREFIX_MATCH_FACTOR = 0.6;
+
+    // term -> postings; sorted so prefix lookups are a range scan
+    private final TreeMap<String, Postings> postings = new TreeMap<>();
+
+    // productId <-> dense ordinal; freed ordinals are reused
+    private final Map<Integer, Integer> ordinals = new HashMap<>();
+    private final List<String[]> termsByOrdinal = new ArrayList<>();
+    private int[] productIds = new int[1024];
+    private int[] lengths = new int[1024];
+    private int[] freeOrdinals = new int[16];
+    private int freeCount;
+    private int ordinalCount;
+    private long totalLength;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Add or replace a product in the index
+    public void index(Product product) {
+        Map<String, Integer> terms = new HashMap<>();
+        for (String token : tokenize(product.getName())) {
+            terms.merge(token, NAME_WEIGHT, Integer::sum);
+        }
+        for (String token : tokenize(product.getDescription())) {
+            terms.merge(token, DESCRIPTION_WEIGHT, Integer::sum);
+        }
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(product.getId());
+            int ordinal = allocateOrdinal(product.getId());
+            int length = 0;
+            for (Map.Entry<String, Integer> term : terms.entrySet()) {
+                postings.computeIfAbsent(term.getKey(), t -> new Postings()).add(ordinal, term.getValue());
+                length += term.getValue();
+            }
+            termsByOrdinal.set(ordinal, terms.keySet().toArray(new String[0]));
+            lengths[ordinal] = length;
+            totalLength += length;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int productId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return ordinals.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Ranked product ids for a free-text query, best match first
+    public List<Integer> search(String query, int limit) {
+        List<String> tokens = tokenize(query);
+        if (tokens.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        lock.readLock().lock();
+        try {
+            int docCount = ordinals.size();
+            if (docCount == 0) {
+                return Collections.emptyList();
+            }
+            double avgLength = Math.max(1.0, (double) totalLength / docCount);
+
+            // Collect the matching postings first, so the scratch map is sized by what this query touches
+            List<Postings> exactMatches = new ArrayList<>();
+            List<Postings> prefixMatches = new ArrayList<>();
+            long touched = 0;
+            for (String token : tokens) {
+                Postings exact = postings.get(token);
+                if (exact != null) {
+                    exactMatches.add(exact);
+                    touched += exact.size;
+                }
+                if (token.length() < MIN_PREFIX_LENGTH) {
+                    continue;
+                }
+                int expanded = 0;
+                for (Postings docs : postings.subMap(token, false, token + Character.MAX_VALUE, false).values()) {
+                    if (++expanded > MAX_PREFIX_EXPANSIONS) {
+                        break;
+                    }
+                    prefixMatches.add(docs);
+                    touched += docs.size;
+                }
+            }
+            if (touched == 0) {
+                return Collections.emptyList();
+            }
+
+            Accumulator acc = new Accumulator((int) Math.min(touched, docCount));
+            for (Postings docs : exactMatches) {
+                score(acc, docs, 1.0, docCount, avgLength);
+            }
+            for (Postings docs : prefixMatches) {
+                score(acc, docs, PREFIX_MATCH_FACTOR, docCount, avgLength);
+            }
+            return topResults(acc, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void score(Accumulator acc, Postings docs, double factor, int docCount, double avgLength) {
+        int df = docs.size;
+        double idf = factor * Math.log(1 + (docCount - df + 0.5) / (df + 0.5));
+        for (int i = 0; i < df; i++) {
+            int ordinal = docs.ordinals[i];
+            int tf = docs.frequencies[i];
+            double norm = K1 * (1 - B + B * lengths[ordinal] / avgLength);
+            acc.add(ordinal, idf * tf * (K1 + 1) / (tf + norm));
+        }
+    }
+
+    // Bounded min-heap over the accumulator's occupied slots
+    private List<Integer> topResults(Accumulator acc, int limit) {
+        double[] scores = acc.scores;
+        int[] heap = new int[Math.min(limit, acc.size)];
+        int heapSize = 0;
+        for (int slot = 0; slot < acc.ordinals.length; slot++) {
+            if (acc.ordinals[slot] == Accumulator.EMPTY) {
+                continue;
+            }
+            if (heapSize < heap.length) {
+                heap[heapSize++] = slot;
+                siftUp(heap, heapSize - 1, scores);
+            } else if (scores[slot] > scores[heap[0]]) {
+                heap[0] = slot;
+                siftDown(heap, heapSize, scores);
+            }
+        }
+
+        Integer[] ranked = new Integer[heapSize];
+        for (int i = 0; i < heapSize; i++) {
+            ranked[i] = heap[i];
+        }
+        Arrays.sort(ranked, (a, b) -> Double.compare(scores[b], scores[a]));
+        List<Integer> ids = new ArrayList<>(heapSize);
+        for (Integer slot : ranked) {
+            ids.add(productIds[acc.ordinals[slot]]);
+        }
+        return ids;
+    }
+
+    private static void siftUp(int[] heap, int index, double[] scores) {
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (scores[heap[index]] >= scores[heap[parent]]) {
+                return;
+            }
+            swap(heap, index, parent);
+            index = parent;
+        }
+    }
+
+    private static void siftDown(int[] heap, int size, double[] scores) {
+        int index = 0;
+        while (true) {
+            int smallest = index;
+            int left = 2 * index + 1;
+            int right = left + 1;
+            if (left < size && scores[heap[left]] < scores[heap[smallest]]) {
+                smallest = left;
+            }
+            if (right < size && scores[heap[right]] < scores[heap[smallest]]) {
+                smallest = right;
+            }
+            if (smallest == index) {
+                return;
+            }
+            swap(heap, index, smallest);
+            index = smallest;
+        }
+    }
+
+    private static void swap(int[] heap, int a, int b) {
+        int tmp = heap[a];
+        heap[a] = heap[b];
+        heap[b] = tmp;
+    }
+
+    private int allocateOrdinal(int productId) {
+        int ordinal;
+        if (freeCount > 0) {
+            ordinal = freeOrdinals[--freeCount];
+        } else {
+            ordinal = ordinalCount++;
+            if (ordinal == productIds.length) {
+                productIds = Arrays.copyOf(productIds, ordinal * 2);
+                lengths = Arrays.copyOf(lengths, ordinal * 2);
+            }
+            termsByOrdinal.add(null);
+        }
+        productIds[ordinal] = productId;
+        ordinals.put(productId, ordinal);
+        return ordinal;
+    }
+
+    private void removeLocked(int productId) {
+        Integer ordinal = ordinals.remove(productId);
+        if (ordinal == null) {
+            return;
+        }
+        for (String term : termsByOrdinal.get(ordinal)) {
+            Postings docs = postings.get(term);
+            if (docs != null) {
+                docs.remove(ordinal);
+                if (docs.size == 0) {
+                    postings.remove(term);
+                }
+            }
+        }
+        totalLength -= lengths[ordinal];
+        lengths[ordinal] = 0;
+        termsByOrdinal.set(ordinal, null);
+        if (freeCount == freeOrdinals.length) {
+            freeOrdinals = Arrays.copyOf(freeOrdinals, freeCount * 2);
+        }
+        freeOrdinals[freeCount++] = ordinal;
+    }
+
+    // Lower-case, split on anything that is not a letter or digit
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return Collections.emptyList();
+        }
+        List<String> tokens = new ArrayList<>();
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{Nd}]+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    // Unordered (ordinal, weighted tf) pairs for one term
+    private static class Postings {
+        private int[] ordinals = new int[4];
+        private int[] frequencies = new int[4];
+        private int size;
+
+        private void add(int ordinal, int frequency) {
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            ordinals[size] = ordinal;
+            frequencies[size] = frequency;
+            size++;
+        }
+
+        // Swap-remove: order does not matter for scoring
+        private void remove(int ordinal) {
+            for (int i = 0; i < size; i++) {
+                if (ordinals[i] == ordinal) {
+                    size--;
+                    ordinals[i] = ordinals[size];
+                    frequencies[i] = frequencies[size];
+                    return;
+                }
+            }
+        }
+    }
+
+    // Per-query ordinal -> score map with open addressing. Sized to the postings the query touches (at most the
+    // catalog), so scratch space is proportional to the query's work and is garbage once the query returns.
+    private static class Accumulator {
+        private static final int EMPTY = -1;
+
+        private final int[] ordinals;
+        private final double[] scores;
+        private final int mask;
+        private int size;
+
+        // Power-of-two table at most half full
+        private Accumulator(int expected) {
+            int capacity = Integer.highestOneBit(Math.max(1, expected) * 2 - 1) << 1;
+            ordinals = new int[capacity];
+            Arrays.fill(ordinals, EMPTY);
+            scores = new double[capacity];
+            mask = capacity - 1;
+        }
+
+        private void add(int ordinal, double score) {
+            int slot = (ordinal * 0x9E3779B9) & mask;
+            while (ordinals[slot] != ordinal) {
+                if (ordinals[slot] == EMPTY) {
+                    ordinals[slot] = ordinal;
+                    size++;
+                    break;
+                }
+                slot = (slot + 1) & mask;
+            }
+            scores[slot] += score;
+        }
+    }
+}
@@ -1,80 +1,524 @@
 package com.example.ecommerce.service;
 
-import com.cloudinary.Cloudinary;
-import com.cloudinary.utils.ObjectUtils;
+import com.example.ecommerce.dto.ProductCacheStatsDTO;
+import com.example.ecommerce.dto.ProductCursor;
+import com.example.ecommerce.dto.ProductPageDTO;
+import com.example.ecommerce.dto.ProductSuggestionDTO;
+import com.example.ecommerce.dto.StockUpdateRequest;
 import com.example.ecommerce.entity.Product;
+import com.example.ecommerce.repository.CartRepository;
+import com.example.ecommerce.repository.OrderItemRepository;
 import com.example.ecommerce.repository.ProductRepository;
+import com.example.ecommerce.repository.ProductSpecifications;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 @Service
 public class ProductService {
 
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+    private static final List<String> SORTABLE_FIELDS = List.of("id", "price", "name");
+    private static final int INDEX_BATCH_SIZE = 1000;
+    // Striped locks that serialize publishing changes of one product to the in-memory views
+    private static final int PUBLISH_LOCK_STRIPES = 64;
+
     private final ProductRepository productRepository;
-    private final Cloudinary cloudinary;
+    private final ProductImageWorker imageWorker;
+    private final ProductCache productCache;
+    private final ProductSearchIndex searchIndex;
+    private final ProductNameTrie nameTrie;
+    private final ProductPriceIndex priceIndex;
+    private final OrderItemRepository orderItemRepository;
+    private final CartRepository cartRepository;
+    private final CategoryService categoryService;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Object[] publishLocks = new Object[PUBLISH_LOCK_STRIPES];
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
-    public ProductService(ProductRepository productRepository, Cloudinary cloudinary) {
+    // Monotonic catalog version, bumped after every committed mutation; drives ETag/Last-Modified on listings.
+    // The epoch keeps versions from different process lifetimes from colliding.
+    private final AtomicLong catalogVersion = new AtomicLong();
+    private final long catalogEpoch = System.currentTimeMillis();
+    private volatile long catalogLastModified = catalogEpoch;
+
+    public ProductService(ProductRepository productRepository, ProductImageWorker imageWorker,
+                          ProductSearchIndex searchIndex, ProductNameTrie nameTrie,
+                          ProductPriceIndex priceIndex,
+                          OrderItemRepository orderItemRepository, CartRepository cartRepository,
+                          CategoryService categoryService, PlatformTransactionManager transactionManager,
+                          @Value("${catalog.cache.max-entries:10000}") int cacheMaxEntries,
+                          @Value("${catalog.cache.ttl-seconds:300}") long cacheTtlSeconds) {
         this.productRepository = productRepository;
-        this.cloudinary = cloudinary;
+        this.imageWorker = imageWorker;
+        this.productCache = new ProductCache(cacheMaxEntries, cacheTtlSeconds * 1000);
+        this.searchIndex = searchIndex;
+        this.nameTrie = nameTrie;
+        this.priceIndex = priceIndex;
+        this.orderItemRepository = orderItemRepository;
+        this.cartRepository = cartRepository;
+        this.categoryService = categoryService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        for (int i = 0; i < publishLocks.length; i++) {
+            publishLocks[i] = new Object();
+        }
     }
 
-    // Save product with optional image
+    // Save product with optional image. The product is stored right away; the image is uploaded in the
+    // background and the product is PENDING until it is ready.
     public Product saveProduct(Product product, MultipartFile imageFile) throws IOException {
-        if (imageFile != null && !imageFile.isEmpty()) {
-            Map uploadResult = cloudinary.uploader().upload(
-                    imageFile.getBytes(),
-                    ObjectUtils.asMap("folder", "ecommerce/products")
-            );
-            product.setImageUrl((String) uploadResult.get("secure_url"));
-            product.setImagePublicId((String) uploadResult.get("public_id"));
+        categoryService.requireCategory(product.getCategoryId());
+        ProductImageWorker.PendingImage image = spoolImage(imageFile);
+        if (image != null) {
+            product.setImageStatus(Product.IMAGE_PENDING);
         }
-        return productRepository.save(product);
+        return saveWithImage(image, () -> {
+            Product result = productRepository.save(product);
+            categoryService.moveProduct(null, result.getCategoryId());
+            return result;
+        });
     }
 
-    // Get all products
+    // Get all products (served from the cached catalog snapshot when possible)
     public List<Product> getAllProducts() {
-        return productRepository.findAll();
+        List<Product> cached = productCache.getSnapshot();
+        if (cached != null) {
+            return cached;
+        }
+        long generation = productCache.generation();
+        List<Product> products = productRepository.findAll();
+        productCache.putSnapshotIfCurrent(products, generation);
+        return products;
+    }
+
+    // Get a single product, hitting the DB only on a cache miss
+    public Optional<Product> findProductById(int id) {
+        Product cached = productCache.get(id);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        long generation = productCache.generation();
+        Optional<Product> product = productRepository.findById(id);
+        product.ifPresent(p -> productCache.putIfCurrent(p, generation));
+        return product;
+    }
+
+    public ProductCacheStatsDTO getCacheStats() {
+        return productCache.stats();
+    }
+
+    // Opaque token that changes whenever any product changes
+    public String getCatalogVersionTag() {
+        return Long.toString(catalogEpoch, 36) + "." + catalogVersion.get();
+    }
+
+    public long getCatalogLastModified() {
+        return catalogLastModified;
+    }
+
+    // Search products by name/description, best match first
+    public List<Product> searchProducts(String query, int limit) {
+        int max = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        return findProductsByIds(searchIndex.search(query, max));
+    }
+
+    // Type-ahead suggestions for a name prefix, most ordered products first
+    public List<ProductSuggestionDTO> suggestProductNames(String prefix, int limit) {
+        return nameTrie.suggest(prefix, Math.min(limit, ProductNameTrie.MAX_SUGGESTIONS));
+    }
+
+    // Take stock for an order line inside the caller's transaction; false when not enough is left
+    @Transactional
+    public boolean reserveStock(int productId, int quantity) {
+        return productRepository.reserveStock(productId, quantity) == 1;
+    }
+
+    // Give back stock taken by reserveStock (cancelled / failed orders)
+    @Transactional
+    public void releaseStock(int productId, int quantity) {
+        productRepository.releaseStock(productId, quantity);
+    }
+
+    // Admin stock change, applied in the DB so reservations made since the admin loaded the product survive.
+    // Throws NoSuchElementException for an unknown product, IllegalArgumentException for a bad request and
+    // IllegalStateException when the stock moved on (or the delta would take it below zero).
+    public Product updateStock(int id, StockUpdateRequest request) {
+        if (!productRepository.existsById(id)) {
+            throw new NoSuchElementException("Product not found with ID: " + id);
+        }
+        Integer delta = request.getDelta();
+        if (delta != null && (request.getStock() != null || request.getExpectedStock() != null)) {
+            throw new IllegalArgumentException("Send either delta or stock, not both");
+        }
+        if (delta == null && request.getStock() != null && request.getStock() < 0) {
+            throw new IllegalArgumentException("Stock cannot be negative");
+        }
+        int updated = transactionTemplate.execute(status -> {
+            int rows = delta != null
+                    ? productRepository.adjustStock(id, delta)
+                    : productRepository.replaceStock(id, request.getExpectedStock(), request.getStock());
+            if (rows == 1) {
+                onStockChanged(List.of(id));
+            }
+            return rows;
+        });
+        if (updated == 0) {
+            throw new IllegalStateException(delta != null
+                    ? "Stock is not tracked for this product or would go below zero"
+                    : "Stock has changed since it was loaded; reload and try again");
+        }
+        return productRepository.findById(id)
+                .orElseThrow(() -> new NoSuchElementException("Product not found with ID: " + id));
     }
 
-    // Delete product
+    // Cached products carry their stock, so drop them once a stock change commits
+    public void onStockChanged(Collection<Integer> productIds) {
+        List<Integer> ids = new ArrayList<>(productIds);
+        if (ids.isEmpty()) {
+            return;
+        }
+        afterCommit(() -> {
+            ids.forEach(productCache::invalidate);
+            markCatalogChanged();
+        });
+    }
+
+    // Count newly placed order lines towards product popularity once the order is committed
+    public void recordProductsOrdered(Collection<Integer> productIds) {
+        List<Integer> ids = new ArrayList<>(productIds);
+        afterCommit(() -> ids.forEach(id -> nameTrie.incrementPopularity(id, 1)));
+    }
+
+    // Resolve ids to products in the given order, loading only cache misses from the DB in one query
+    public List<Product> findProductsByIds(List<Integer> ids) {
+        Map<Integer, Product> found = new HashMap<>();
+        List<Integer> missing = new ArrayList<>();
+        for (Integer id : ids) {
+            Product cached = productCache.get(id);
+            if (cached != null) {
+                found.put(id, cached);
+            } else {
+                missing.add(id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            long generation = productCache.generation();
+            for (Product product : productRepository.findAllById(missing)) {
+                found.put(product.getId(), product);
+                productCache.putIfCurrent(product, generation);
+            }
+        }
+        List<Product> result = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            Product product = found.get(id);
+            if (product != null) {
+                result.add(product);
+            }
+        }
+        return result;
+    }
+
+    // Build the in-memory catalog indexes once the application is up
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildCatalogIndexes() {
+        long start = System.currentTimeMillis();
+        Map<Integer, Long> orderCounts = new HashMap<>();
+        for (Object[] row : orderItemRepository.countOrderLinesByProduct()) {
+            orderCounts.put((Integer) row[0], (Long) row[1]);
+        }
+        nameTrie.setPopularity(orderCounts);
+        List<Integer> ids = new ArrayList<>();
+        List<Double> prices = new ArrayList<>();
+        forEachProductBatch(0, batch -> batch.forEach(product -> {
+            searchIndex.index(product);
+            nameTrie.index(product);
+            ids.add(product.getId());
+            prices.add(product.getPrice());
+        }));
+        nameTrie.warmUp();
+        priceIndex.load(ids.stream().mapToInt(Integer::intValue).toArray(),
+                prices.stream().mapToDouble(Double::doubleValue).toArray());
+        System.out.println("Catalog indexes built for " + searchIndex.size() + " products in "
+                + (System.currentTimeMillis() - start) + " ms");
+    }
+
+    // Add products inserted behind JPA's back (bulk import) to the in-memory views
+    public void indexImportedProducts(int afterId) {
+        List<Integer> ids = new ArrayList<>();
+        List<Double> prices = new ArrayList<>();
+        forEachProductBatch(afterId, batch -> batch.forEach(product -> {
+            searchIndex.index(product);
+            nameTrie.index(product);
+            ids.add(product.getId());
+            prices.add(product.getPrice());
+        }));
+        priceIndex.putAll(ids.stream().mapToInt(Integer::intValue).toArray(),
+                prices.stream().mapToDouble(Double::doubleValue).toArray());
+        productCache.invalidateSnapshot();
+        markCatalogChanged();
+    }
+
+    // Walk the catalog in id order from afterId, one bounded batch at a time
+    private void forEachProductBatch(int afterId, Consumer<List<Product>> consumer) {
+        int lastId = afterId;
+        while (true) {
+            ProductCursor cursor = new ProductCursor("id", false, lastId, "");
+            List<Product> batch = productRepository.findBy(ProductSpecifications.after(cursor),
+                    q -> q.sortBy(Sort.by("id")).limit(INDEX_BATCH_SIZE).all());
+            if (batch.isEmpty()) {
+                return;
+            }
+            consumer.accept(batch);
+            lastId = batch.get(batch.size() - 1).getId();
+        }
+    }
+
+    // Keep every in-memory view of the catalog in step with a committed change
+    private void onProductSaved(Product product) {
+        productCache.put(product);
+        searchIndex.index(product);
+        nameTrie.index(product);
+        priceIndex.put(product.getId(), product.getPrice());
+        markCatalogChanged();
+    }
+
+    private void onProductDeleted(int id) {
+        productCache.invalidate(id);
+        searchIndex.remove(id);
+        nameTrie.remove(id);
+        priceIndex.remove(id);
+        markCatalogChanged();
+    }
+
+    private void markCatalogChanged() {
+        catalogLastModified = System.currentTimeMillis();
+        catalogVersion.incrementAndGet();
+    }
+
+    // Get one page of products using keyset pagination on (sort key, id), optionally within a price band
+    // and/or a category subtree.
+    // Price-sorted pages come from the in-memory price index (binary search + cache lookups) once it is
+    // loaded; everything else seeks through the DB indexes.
+    public ProductPageDTO getProductPage(String sort, String direction, String cursorToken, Integer size,
+                                         Double minPrice, Double maxPrice, Integer categoryId) {
+        String sortField = sort == null ? "id" : sort.toLowerCase();
+        if (!SORTABLE_FIELDS.contains(sortField)) {
+            throw new IllegalArgumentException("Unsupported sort field: " + sort);
+        }
+        boolean descending = "desc".equalsIgnoreCase(direction);
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+
+        ProductCursor cursor = null;
+        if (cursorToken != null && !cursorToken.isBlank()) {
+            cursor = ProductCursor.decode(cursorToken);
+            if (!cursor.getSort().equals(sortField) || cursor.isDescending() != descending) {
+                throw new IllegalArgumentException("Cursor does not match the requested sort order");
+            }
+        }
+
+        // The price index doesn't know about categories, so category browsing always seeks through the DB
+        if ("price".equals(sortField) && priceIndex.isLoaded() && categoryId == null) {
+            return getPriceIndexedPage(cursor, descending, pageSize, minPrice, maxPrice);
+        }
+
+        List<Specification<Product>> filters = new ArrayList<>();
+        if (cursor != null) {
+            filters.add(ProductSpecifications.after(cursor));
+        }
+        if (minPrice != null || maxPrice != null) {
+            filters.add(ProductSpecifications.priceBetween(minPrice, maxPrice));
+        }
+        if (categoryId != null) {
+            filters.add(ProductSpecifications.inCategoryTree(categoryId));
+        }
+
+        Sort.Direction dir = descending ? Sort.Direction.DESC : Sort.Direction.ASC;
+        Sort order = "id".equals(sortField)
+                ? Sort.by(dir, "id")
+                : Sort.by(dir, sortField).and(Sort.by(dir, "id"));
+
+        // Fetch one extra row to know whether another page exists without a COUNT query
+        List<Product> rows = productRepository.findBy(Specification.allOf(filters),
+                q -> q.sortBy(order).limit(pageSize + 1).all());
+
+        String nextCursor = null;
+        if (rows.size() > pageSize) {
+            rows = new ArrayList<>(rows.subList(0, pageSize));
+            nextCursor = ProductCursor.after(rows.get(pageSize - 1), sortField, descending).encode();
+        }
+        return new ProductPageDTO(rows, nextCursor, pageSize, sortField, descending ? "desc" : "asc");
+    }
+
+    private ProductPageDTO getPriceIndexedPage(ProductCursor cursor, boolean descending, int pageSize,
+                                               Double minPrice, Double maxPrice) {
+        Double afterPrice = cursor == null ? null : Double.valueOf(cursor.getLastValue());
+        Integer afterId = cursor == null ? null : cursor.getLastId();
+        ProductPriceIndex.Slice slice = priceIndex.page(minPrice, maxPrice, afterPrice, afterId, descending, pageSize);
+
+        List<Integer> ids = new ArrayList<>(slice.getIds().length);
+        for (int id : slice.getIds()) {
+            ids.add(id);
+        }
+        String nextCursor = null;
+        if (slice.hasMore()) {
+            // Cursor carries the indexed price so paging stays consistent with the index order
+            int last = slice.getIds().length - 1;
+            nextCursor = new ProductCursor("price", descending, slice.getIds()[last],
+                    Double.toString(slice.getPrices()[last])).encode();
+        }
+        return new ProductPageDTO(findProductsByIds(ids), nextCursor, pageSize, "price",
+                descending ? "desc" : "asc");
+    }
+
+    // Delete product. The row is locked before its category is read, so of two concurrent deletes only the one
+    // that finds the row decrements the count.
     public boolean deleteProduct(int id) throws IOException {
-        if (productRepository.existsById(id)) {
-            Product product = productRepository.findById(id).orElseThrow();
-            if (product.getImagePublicId() != null) {
-                cloudinary.uploader().destroy(product.getImagePublicId(), ObjectUtils.emptyMap());
+        Product product = transactionTemplate.execute(status -> {
+            Product locked = productRepository.findLockedById(id).orElse(null);
+            if (locked != null) {
+                productRepository.delete(locked);
+                categoryService.moveProduct(locked.getCategoryId(), null);
             }
-            productRepository.deleteById(id);
-            return true;
+            return locked;
+        });
+        if (product == null) {
+            return false;
         }
-        return false;
+        afterCommit(() -> {
+            publishProduct(id);
+            imageWorker.forgetProduct(id);
+            if (product.getImagePublicId() != null) {
+                imageWorker.submitDelete(product.getImagePublicId());
+            }
+        });
+        return true;
     }
 
-    // Update product (with optional new image)
+    // Update product (with optional new image). The product is read under a row lock inside the write
+    // transaction, so the category count move and the price check use the values this edit replaces.
     public Product updateProduct(int id, Product updatedProduct, MultipartFile newImage) throws IOException {
-        Product existingProduct = productRepository.findById(id)
-                .orElseThrow(() -> new NoSuchElementException("Product not found with ID: " + id));
+        categoryService.requireCategory(updatedProduct.getCategoryId());
+        // The current image stays visible until the replacement is uploaded; the worker deletes the old one
+        ProductImageWorker.PendingImage image = spoolImage(newImage);
+
+        return saveWithImage(image, () -> {
+            Product existingProduct = productRepository.findLockedById(id)
+                    .orElseThrow(() -> new NoSuchElementException("Product not found with ID: " + id));
+
+            boolean priceChanged = existingProduct.getPrice() != updatedProduct.getPrice();
+            Integer previousCategoryId = existingProduct.getCategoryId();
+            existingProduct.setName(updatedProduct.getName());
+            existingProduct.setPrice(updatedProduct.getPrice());
+            existingProduct.setDescription(updatedProduct.getDescription());
+            // Stock is left alone: the form's value is stale as soon as someone checks out (see updateStock)
+            existingProduct.setCategoryId(updatedProduct.getCategoryId());
+            if (image != null) {
+                existingProduct.setImageStatus(Product.IMAGE_PENDING);
+            }
+
+            Product result = productRepository.save(existingProduct);
+            categoryService.moveProduct(previousCategoryId, result.getCategoryId());
+            if (priceChanged) {
+                // Stored cart subtotals are priced at current prices
+                cartRepository.recomputeSubtotalsForProduct(id);
+            }
+            return result;
+        });
+    }
+
+    private ProductImageWorker.PendingImage spoolImage(MultipartFile imageFile) throws IOException {
+        return imageFile == null || imageFile.isEmpty() ? null : imageWorker.spool(imageFile);
+    }
+
+    // Run a product write (the row plus the counters that go with it) in one transaction, then publish the
+    // product and queue its image upload once the row is committed. Publishing first means a fast upload's
+    // refresh can't be overwritten by the PENDING copy.
+    private Product saveWithImage(ProductImageWorker.PendingImage image, Supplier<Product> write) {
+        Product saved;
+        try {
+            saved = transactionTemplate.execute(status -> write.get());
+        } catch (RuntimeException e) {
+            if (image != null) {
+                imageWorker.discard(image);
+            }
+            throw e;
+        }
+        afterCommit(() -> {
+            publishProduct(saved.getId());
+            if (image != null) {
+                imageWorker.submitUpload(saved.getId(), image, this::refreshProduct);
+            }
+        });
+        return saved;
+    }
 
-        existingProduct.setName(updatedProduct.getName());
-        existingProduct.setPrice(updatedProduct.getPrice());
-        existingProduct.setDescription(updatedProduct.getDescription());
+    // Reload a product changed outside this service (background image updates) into the in-memory views
+    private void refreshProduct(int id) {
+        publishProduct(id);
+    }
 
-        if (newImage != null && !newImage.isEmpty()) {
-            if (existingProduct.getImagePublicId() != null) {
-                cloudinary.uploader().destroy(existingProduct.getImagePublicId(), ObjectUtils.emptyMap());
+    // Apply a committed change of one product to the cache and indexes from the row as it is now, not from
+    // the writer's copy: two writes of a product can finish their commits in either order. The read and the
+    // apply happen under the product's lock, so whichever publish runs last applies the newest row, and a
+    // product deleted meanwhile is removed rather than re-added from a stale copy.
+    private void publishProduct(int id) {
+        synchronized (publishLocks[Math.floorMod(id, publishLocks.length)]) {
+            Product current = readOnlyTransaction.execute(status -> {
+                Product found = productRepository.findById(id).orElse(null);
+                if (found != null) {
+                    // An open-session-in-view request still holds its own copy, which findById would return
+                    entityManager.refresh(found);
+                }
+                return found;
+            });
+            if (current != null) {
+                onProductSaved(current);
+            } else {
+                onProductDeleted(id);
             }
-            Map uploadResult = cloudinary.uploader().upload(
-                    newImage.getBytes(),
-                    ObjectUtils.asMap("folder", "ecommerce/products")
-            );
-            existingProduct.setImageUrl((String) uploadResult.get("secure_url"));
-            existingProduct.setImagePublicId((String) uploadResult.get("public_id"));
         }
+    }
 
-        return productRepository.save(existingProduct);
+    // Apply cache changes only once the DB change is visible to other readers
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
     }
 }
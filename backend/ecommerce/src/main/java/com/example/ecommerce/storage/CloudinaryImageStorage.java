@@ -0,0 +1,48 @@
+package com.example.ecommerce.storage;
+
+import com.cloudinary.Cloudinary;
+import com.cloudinary.Transformation;
+import com.cloudinary.utils.ObjectUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+
+@Component
+@ConditionalOnProperty(name = "catalog.image.storage", havingValue = "cloudinary", matchIfMissing = true)
+public class CloudinaryImageStorage implements ImageStorage {
+
+    private final Cloudinary cloudinary;
+    private final int thumbnailSize;
+
+    public CloudinaryImageStorage(Cloudinary cloudinary,
+                                  @Value("${catalog.image.thumbnail-size:320}") int thumbnailSize) {
+        this.cloudinary = cloudinary;
+        this.thumbnailSize = thumbnailSize;
+    }
+
+    // Cloudinary streams a File body, so the image is never loaded onto the heap
+    @Override
+    public StoredImage store(Path file, String originalFilename) throws IOException {
+        Map uploadResult = cloudinary.uploader().upload(
+                file.toFile(),
+                ObjectUtils.asMap("folder", "ecommerce/products")
+        );
+        String publicId = (String) uploadResult.get("public_id");
+        // Cloudinary renders (and caches) the thumbnail on first request from a transformation URL
+        String thumbnailUrl = cloudinary.url()
+                .secure(true)
+                .format((String) uploadResult.get("format"))
+                .transformation(new Transformation().width(thumbnailSize).height(thumbnailSize).crop("fill"))
+                .generate(publicId);
+        return new StoredImage((String) uploadResult.get("secure_url"), thumbnailUrl, publicId);
+    }
+
+    @Override
+    public void delete(String publicId) throws IOException {
+        cloudinary.uploader().destroy(publicId, ObjectUtils.emptyMap());
+    }
+}
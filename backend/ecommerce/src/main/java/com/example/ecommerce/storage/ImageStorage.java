@@ -0,0 +1,15 @@
+package com.example.ecommerce.storage;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+// Where product images live. Selected with catalog.image.storage=cloudinary|local
+public interface ImageStorage {
+
+    // Store the image read from a local file along with its thumbnail; the file itself is left in place
+    // for the caller to clean up
+    StoredImage store(Path file, String originalFilename) throws IOException;
+
+    // Remove a previously stored image and its thumbnail; unknown ids are ignored
+    void delete(String publicId) throws IOException;
+}
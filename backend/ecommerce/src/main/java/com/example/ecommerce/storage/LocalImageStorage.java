@@ -0,0 +1,160 @@
+package com.example.ecommerce.storage;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.UUID;
+
+// Keeps images on the local filesystem (self-hosted deployments, tests without Cloudinary).
+// Files are served by ImageController; names are random and never reused, so they can be cached forever.
+@Component
+@ConditionalOnProperty(name = "catalog.image.storage", havingValue = "local")
+public class LocalImageStorage implements ImageStorage {
+
+    private static final String THUMBNAIL_SUFFIX = "-thumb.jpg";
+
+    private final Path directory;
+    private final String baseUrl;
+    private final int thumbnailSize;
+    private final long maxPixels;
+
+    public LocalImageStorage(@Value("${catalog.image.local.dir:uploads/images}") String directory,
+                             @Value("${catalog.image.local.base-url:/api/images/}") String baseUrl,
+                             @Value("${catalog.image.thumbnail-size:320}") int thumbnailSize,
+                             @Value("${catalog.image.max-pixels:50000000}") long maxPixels) throws IOException {
+        this.directory = Paths.get(directory).toAbsolutePath().normalize();
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl : baseUrl + "/";
+        this.thumbnailSize = thumbnailSize;
+        this.maxPixels = maxPixels;
+        Files.createDirectories(this.directory);
+    }
+
+    // Runs on the image worker, so thumbnail generation stays off the request thread. The thumbnail is made
+    // first so an image that is rejected for its size leaves nothing behind.
+    @Override
+    public StoredImage store(Path file, String originalFilename) throws IOException {
+        BufferedImage thumbnail = thumbnail(file);
+        String publicId = UUID.randomUUID() + extension(originalFilename);
+        write(directory.resolve(publicId), target -> Files.copy(file, target, StandardCopyOption.REPLACE_EXISTING));
+
+        String thumbnailUrl = baseUrl + publicId;
+        if (thumbnail != null) {
+            String thumbnailName = thumbnailName(publicId);
+            write(directory.resolve(thumbnailName), target -> ImageIO.write(thumbnail, "jpg", target.toFile()));
+            thumbnailUrl = baseUrl + thumbnailName;
+        }
+        return new StoredImage(baseUrl + publicId, thumbnailUrl, publicId);
+    }
+
+    @Override
+    public void delete(String publicId) throws IOException {
+        Path target = resolve(publicId);
+        if (target != null) {
+            Files.deleteIfExists(target);
+            Files.deleteIfExists(directory.resolve(thumbnailName(publicId)));
+        }
+    }
+
+    // Path of a stored file, or null if the name would escape the storage directory
+    public Path resolve(String name) {
+        Path target = directory.resolve(name).normalize();
+        return target.getParent() != null && target.getParent().equals(directory) ? target : null;
+    }
+
+    private interface FileWriter {
+        void write(Path target) throws IOException;
+    }
+
+    // Write under a temp name first so a half-written file is never visible under its final name
+    private static void write(Path target, FileWriter writer) throws IOException {
+        Path partial = target.resolveSibling(target.getFileName() + ".part");
+        try {
+            writer.write(partial);
+            Files.move(partial, target, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(partial);
+        }
+    }
+
+    // Scale to fit a thumbnailSize square, keeping the aspect ratio. Returns null for formats ImageIO can't
+    // decode, in which case listings fall back to the original. The dimensions are read from the header
+    // first: anything over maxPixels is rejected with IllegalArgumentException (a small file can declare
+    // huge dimensions), and the rest is decoded subsampled, so the heap holds about twice the thumbnail
+    // rather than the full-resolution image.
+    private BufferedImage thumbnail(Path file) {
+        BufferedImage source;
+        try (ImageInputStream input = ImageIO.createImageInputStream(file.toFile())) {
+            Iterator<ImageReader> readers = input == null ? null : ImageIO.getImageReaders(input);
+            if (readers == null || !readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxPixels) {
+                    throw new IllegalArgumentException("Image is " + width + "x" + height
+                            + " pixels, more than the " + maxPixels + " allowed");
+                }
+                int step = Math.max(1, Math.max(width, height) / (thumbnailSize * 2));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                source = reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException e) {
+            return null;
+        }
+        double scale = Math.min(1.0, (double) thumbnailSize / Math.max(source.getWidth(), source.getHeight()));
+        int width = Math.max(1, (int) Math.round(source.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * scale));
+        // JPEG has no alpha, so draw onto an opaque RGB canvas
+        BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = scaled.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.setColor(java.awt.Color.WHITE);
+            g.fillRect(0, 0, width, height);
+            g.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return scaled;
+    }
+
+    private static String thumbnailName(String publicId) {
+        int dot = publicId.lastIndexOf('.');
+        return (dot < 0 ? publicId : publicId.substring(0, dot)) + THUMBNAIL_SUFFIX;
+    }
+
+    // Keep a short, safe extension from the uploaded filename (used for the served content type)
+    private static String extension(String filename) {
+        if (filename == null) {
+            return "";
+        }
+        int dot = filename.lastIndexOf('.');
+        if (dot < 0 || dot == filename.length() - 1) {
+            return "";
+        }
+        String ext = filename.substring(dot + 1).toLowerCase(Locale.ROOT);
+        return ext.matches("[a-z0-9]{1,5}") ? "." + ext : "";
+    }
+}
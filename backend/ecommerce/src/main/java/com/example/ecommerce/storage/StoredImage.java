@@ -0,0 +1,21 @@
+package com.example.ecommerce.storage;
+
+// Result of storing an image: the URLs clients load it from and the id used to delete it later
+public class StoredImage {
+    private final String url;
+    private final String thumbnailUrl;
+    private final String publicId;
+
+    public StoredImage(String url, String thumbnailUrl, String publicId) {
+        this.url = url;
+        this.thumbnailUrl = thumbnailUrl;
+        this.publicId = publicId;
+    }
+
+    public String getUrl() { return url; }
+
+    // Small fixed-size rendition for listings (falls back to the original when none could be made)
+    public String getThumbnailUrl() { return thumbnailUrl; }
+
+    public String getPublicId() { return publicId; }
+}
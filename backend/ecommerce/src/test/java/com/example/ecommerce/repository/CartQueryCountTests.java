@@ -0,0 +1,92 @@
+package com.example.ecommerce.repository;
+
+import com.example.ecommerce.dto.CartDTO;
+import com.example.ecommerce.entity.Cart;
+import com.example.ecommerce.entity.CartItem;
+import com.example.ecommerce.entity.Product;
+import com.example.ecommerce.entity.Role;
+import com.example.ecommerce.entity.User;
+import com.example.ecommerce.service.DbCartStore;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Rendering a cart must cost the same number of statements however many items it holds
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("h2")
+@Import(DbCartStore.class)
+class CartQueryCountTests {
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@Autowired
+	private DbCartStore cartStore;
+
+	private Statistics statistics;
+
+	@BeforeEach
+	void setUp() {
+		statistics = entityManager.getEntityManager().getEntityManagerFactory()
+				.unwrap(SessionFactory.class).getStatistics();
+	}
+
+	@Test
+	void getCartIsOneStatement() {
+		int cartId = createCart("alice", 5);
+
+		CartDTO cart = cartStore.getCart(cartId);
+
+		assertEquals(5, cart.getItems().size());
+		assertEquals(1, statistics.getPrepareStatementCount());
+	}
+
+	@Test
+	void getItemsIsOneStatement() {
+		int cartId = createCart("bob", 8);
+
+		assertEquals(8, cartStore.getItems(cartId).size());
+		assertEquals(1, statistics.getPrepareStatementCount());
+	}
+
+	@Test
+	void emptyCartIsOneStatement() {
+		int cartId = createCart("carol", 0);
+
+		assertEquals(0, cartStore.getCart(cartId).getItems().size());
+		assertEquals(1, statistics.getPrepareStatementCount());
+	}
+
+	// Persist a cart with the given number of distinct products, then start counting from a clean context
+	private int createCart(String username, int itemCount) {
+		User user = entityManager.persist(new User(username, username + "@example.com", "secret", Role.ROLE_USER, true));
+		Cart cart = new Cart();
+		cart.setUser(user);
+		for (int i = 0; i < itemCount; i++) {
+			Product product = new Product();
+			product.setName(username + " product " + i);
+			product.setPrice(10 + i);
+			entityManager.persist(product);
+
+			CartItem item = new CartItem();
+			item.setProduct(product);
+			item.setQuantity(1 + i);
+			cart.addItem(item);
+		}
+		int cartId = entityManager.persistAndGetId(cart, Integer.class);
+		entityManager.flush();
+		entityManager.clear();
+		statistics.clear();
+		return cartId;
+	}
+}
@@ -0,0 +1,225 @@
+package com.example.ecommerce.repository;
+
+import com.example.ecommerce.dto.OrderDTO;
+import com.example.ecommerce.dto.OrderMapper;
+import com.example.ecommerce.dto.OrderPageDTO;
+import com.example.ecommerce.dto.ProductMapper;
+import com.example.ecommerce.entity.Order;
+import com.example.ecommerce.entity.OrderItem;
+import com.example.ecommerce.entity.Product;
+import com.example.ecommerce.entity.Role;
+import com.example.ecommerce.entity.User;
+import com.example.ecommerce.service.CartStore;
+import com.example.ecommerce.service.OrderRollupService;
+import com.example.ecommerce.service.OrderService;
+import com.example.ecommerce.service.OrderStatsService;
+import com.example.ecommerce.service.ProductService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Order listings cost a fixed number of statements however many orders and items a page shows: a page is
+// one keyset query for the ids plus one that loads those orders with their items and products.
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("h2")
+@Import({OrderService.class, OrderMapper.class, ProductMapper.class})
+class OrderQueryCountTests {
+
+	// OrderService collaborators the listings never touch
+	@MockitoBean
+	private ProductService productService;
+
+	@MockitoBean
+	private CartStore cartStore;
+
+	@MockitoBean
+	private OrderStatsService orderStatsService;
+
+	@MockitoBean
+	private OrderRollupService orderRollupService;
+
+	@Autowired
+	private OrderService orderService;
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@Autowired
+	private OrderRepository orderRepository;
+
+	@Autowired
+	private OrderMapper orderMapper;
+
+	private Statistics statistics;
+	private final List<User> users = new ArrayList<>();
+	private final List<Integer> orderIds = new ArrayList<>();
+
+	@BeforeEach
+	void setUp() {
+		statistics = entityManager.getEntityManager().getEntityManagerFactory()
+				.unwrap(SessionFactory.class).getStatistics();
+
+		List<Product> products = new ArrayList<>();
+		for (int i = 0; i < 6; i++) {
+			Product product = new Product();
+			product.setName("Product " + i);
+			product.setPrice(5 + i);
+			products.add(entityManager.persist(product));
+		}
+		for (int u = 0; u < 3; u++) {
+			User user = entityManager.persist(new User("user" + u, "user" + u + "@example.com", "secret", Role.ROLE_USER, true));
+			users.add(user);
+			for (int o = 0; o < 4; o++) {
+				Order order = new Order();
+				order.setUser(user);
+				// Three orders share each timestamp, so paging has to break ties on id
+				order.setOrderDate(new Date(1_700_000_000_000L + ((u * 4 + o) / 3) * 60_000L));
+				order.setStatus(o % 2 == 0 ? "PAID" : "PENDING");
+				for (int i = 0; i < 3; i++) {
+					Product product = products.get((o + i) % products.size());
+					OrderItem item = new OrderItem();
+					item.setOrder(order);
+					item.setProduct(product);
+					item.setQuantity(1);
+					item.setPrice(product.getPrice());
+					order.getOrderItems().add(item);
+				}
+				order.setTotalPrice(order.getOrderItems().stream().mapToDouble(OrderItem::getPrice).sum());
+				orderIds.add(entityManager.persistAndGetId(order, Integer.class));
+			}
+		}
+		entityManager.flush();
+		entityManager.clear();
+		statistics.clear();
+	}
+
+	@Test
+	void adminPageIsTwoStatements() {
+		OrderPageDTO page = orderService.getAdminOrderPage(null, null, null, null, null, null, null, 20);
+
+		assertEquals(12, page.getItems().size());
+		assertEquals(3, page.getItems().get(0).getOrderItems().size());
+		assertNull(page.getNextCursor());
+		assertEquals(2, statistics.getPrepareStatementCount());
+	}
+
+	@Test
+	void filteredAdminPageIsTwoStatements() {
+		OrderPageDTO page = orderService.getAdminOrderPage("paid", null, null, users.get(1).getId(),
+				null, null, null, 20);
+
+		assertEquals(2, page.getItems().size());
+		assertTrue(page.getItems().stream().allMatch(order -> "PAID".equals(order.getStatus())));
+		assertTrue(page.getItems().stream().allMatch(order -> users.get(1).getId().equals(order.getUserId())));
+		assertEquals(2, statistics.getPrepareStatementCount());
+	}
+
+	@Test
+	void followingNextCursorReturnsEveryOrderOnce() {
+		List<OrderDTO> seen = new ArrayList<>();
+		String cursor = null;
+		int pages = 0;
+		do {
+			statistics.clear();
+			OrderPageDTO page = orderService.getAdminOrderPage(null, null, null, null, null, null, cursor, 5);
+			assertFalse(page.getItems().isEmpty());
+			assertEquals(2, statistics.getPrepareStatementCount());
+			seen.addAll(page.getItems());
+			cursor = page.getNextCursor();
+			pages++;
+		} while (cursor != null);
+
+		assertEquals(3, pages);
+		Set<Integer> ids = seen.stream().map(OrderDTO::getId).collect(Collectors.toSet());
+		assertEquals(12, seen.size());
+		assertEquals(new HashSet<>(orderIds), ids);
+		List<OrderDTO> newestFirst = new ArrayList<>(seen);
+		newestFirst.sort(Comparator.comparing(OrderDTO::getOrderDate).thenComparing(OrderDTO::getId).reversed());
+		assertEquals(newestFirst.stream().map(OrderDTO::getId).collect(Collectors.toList()),
+				seen.stream().map(OrderDTO::getId).collect(Collectors.toList()));
+	}
+
+	@Test
+	void userPageIsUserCheckPlusTwoStatements() {
+		Long userId = users.get(1).getId();
+		OrderPageDTO page = orderService.getUserOrderPage(userId, null, null, 20);
+
+		assertEquals(4, page.getItems().size());
+		assertTrue(page.getItems().stream().allMatch(order -> userId.equals(order.getUserId())));
+		assertEquals(3, page.getItems().get(0).getOrderItems().size());
+		assertEquals(3, statistics.getPrepareStatementCount());
+	}
+
+	@Test
+	void userPageFiltersByStatus() {
+		Long userId = users.get(2).getId();
+		OrderPageDTO page = orderService.getUserOrderPage(userId, "pending", null, 20);
+
+		assertEquals(2, page.getItems().size());
+		assertTrue(page.getItems().stream().allMatch(order -> "PENDING".equals(order.getStatus())));
+		assertTrue(page.getItems().stream().allMatch(order -> userId.equals(order.getUserId())));
+		assertEquals(3, statistics.getPrepareStatementCount());
+	}
+
+	@Test
+	void userPageTreatsAllAsNoStatusFilter() {
+		Long userId = users.get(0).getId();
+
+		assertEquals(4, orderService.getUserOrderPage(userId, "ALL", null, 20).getItems().size());
+		assertEquals(4, orderService.getUserOrderPage(userId, "all", null, 20).getItems().size());
+		assertEquals(4, orderService.getUserOrderPage(userId, " ", null, 20).getItems().size());
+	}
+
+	@Test
+	void followingUserCursorReturnsEachOrderOnce() {
+		Long userId = users.get(0).getId();
+		OrderPageDTO first = orderService.getUserOrderPage(userId, null, null, 3);
+		OrderPageDTO second = orderService.getUserOrderPage(userId, null, first.getNextCursor(), 3);
+
+		assertEquals(3, first.getItems().size());
+		assertEquals(1, second.getItems().size());
+		assertNull(second.getNextCursor());
+		Set<Integer> ids = new HashSet<>();
+		first.getItems().forEach(order -> ids.add(order.getId()));
+		second.getItems().forEach(order -> ids.add(order.getId()));
+		assertEquals(new HashSet<>(orderIds.subList(0, 4)), ids);
+	}
+
+	@Test
+	void userPageForUnknownUserThrows() {
+		assertThrows(NoSuchElementException.class, () -> orderService.getUserOrderPage(-1L, null, null, 20));
+	}
+
+	@Test
+	void singleOrderIsOneStatement() {
+		Order order = orderRepository.findWithItemsById(orderIds.get(0)).orElseThrow();
+		OrderDTO dto = orderMapper.toDTO(order);
+
+		assertEquals(3, dto.getOrderItems().size());
+		assertEquals(1, statistics.getPrepareStatementCount());
+	}
+}
@@ -0,0 +1,217 @@
+package com.example.ecommerce.service;
+
+import com.example.ecommerce.dto.CartDTO;
+import com.example.ecommerce.dto.CartItemDTO;
+import com.example.ecommerce.entity.Cart;
+import com.example.ecommerce.entity.CartItem;
+import com.example.ecommerce.entity.Product;
+import com.example.ecommerce.entity.Role;
+import com.example.ecommerce.entity.User;
+import com.example.ecommerce.repository.CartItemRepository;
+import com.example.ecommerce.repository.CartRepository;
+import com.example.ecommerce.repository.ProductRepository;
+import com.example.ecommerce.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.when;
+
+// The write-behind store's hand-offs between request threads, the flush and eviction. Runs without a test
+// transaction: the store only marks carts clean once its own write transactions commit.
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("h2")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class MemoryCartStoreTests {
+
+	@MockitoBean
+	private ProductService productService;
+
+	@Autowired
+	private CartRepository cartRepository;
+
+	@Autowired
+	private CartItemRepository cartItemRepository;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	// Runs once inside the flush's write transaction, from the flushing thread; null = nothing to do
+	private volatile Runnable duringWrite;
+	// Product whose lookup fails while armed, to make a cart's write throw
+	private volatile Integer failingProductId;
+	private final AtomicBoolean failArmed = new AtomicBoolean();
+
+	private MemoryCartStore store;
+	private TransactionTemplate transaction;
+
+	@BeforeEach
+	void setUp() {
+		transaction = new TransactionTemplate(transactionManager);
+		when(productService.findProductsByIds(anyList())).thenAnswer(invocation -> {
+			List<Integer> ids = invocation.getArgument(0);
+			if (failArmed.get() && ids.contains(failingProductId)) {
+				throw new IllegalStateException("lookup failed");
+			}
+			Runnable hook = duringWrite;
+			if (hook != null && inWriteTransaction()) {
+				duringWrite = null;
+				hook.run();
+			}
+			return productRepository.findAllById(ids);
+		});
+		store = newStore(1800);
+	}
+
+	@AfterEach
+	void tearDown() {
+		cartItemRepository.deleteAllInBatch();
+		cartRepository.deleteAllInBatch();
+		userRepository.deleteAllInBatch();
+		productRepository.deleteAllInBatch();
+	}
+
+	@Test
+	void editDuringFlushIsNotMarkedClean() throws Exception {
+		Product product = createProduct("lamp");
+		int cartId = createCart("dana");
+		store.addProduct(cartId, product, 1);
+
+		// Another request edits the cart after the flush took its snapshot but before it commits
+		duringWrite = () -> {
+			Thread editor = new Thread(() -> store.addProduct(cartId, product, 4));
+			editor.start();
+			try {
+				editor.join();
+			} catch (InterruptedException e) {
+				throw new IllegalStateException(e);
+			}
+		};
+		store.flushDirtyCarts();
+		assertEquals(Map.of(product.getId(), 1), storedQuantities(cartId));
+
+		// Still dirty, so the next pass writes the edit
+		store.flushDirtyCarts();
+		assertEquals(Map.of(product.getId(), 5), storedQuantities(cartId));
+	}
+
+	@Test
+	void evictedCartReloadsWithItsData() throws Exception {
+		store = newStore(0);
+		Product product = createProduct("mug");
+		int cartId = createCart("erin");
+		store.addProduct(cartId, product, 3);
+		Thread.sleep(5);
+
+		store.flushDirtyCarts();
+		assertFalse(store.isResident(cartId));
+
+		CartDTO cart = store.getCart(cartId);
+		assertTrue(store.isResident(cartId));
+		assertEquals(1, cart.getItems().size());
+		assertEquals(3, cart.getItems().get(0).getQuantity());
+
+		store.addProduct(cartId, product, 1);
+		store.flush(cartId);
+		assertEquals(Map.of(product.getId(), 4), storedQuantities(cartId));
+	}
+
+	@Test
+	void temporaryItemIdResolvesAfterFlush() {
+		Product product = createProduct("pen");
+		int cartId = createCart("finn");
+		int temporaryId = store.addProduct(cartId, product, 2).getItems().get(0).getId();
+		assertTrue(temporaryId < 0);
+
+		store.flush(cartId);
+
+		assertEquals(Set.of(product.getId()), store.productIdsForItems(cartId, List.of(temporaryId)));
+		CartItemDTO item = store.getCart(cartId).getItems().get(0);
+		assertTrue(item.getId() > 0);
+		assertEquals(Set.of(product.getId()), store.productIdsForItems(cartId, List.of(item.getId())));
+	}
+
+	@Test
+	void failedBatchFallsBackToPerCartWrites() {
+		Product good = createProduct("book");
+		Product bad = createProduct("vase");
+		int goodCart = createCart("gail");
+		int badCart = createCart("hank");
+		store.addProduct(goodCart, good, 2);
+		store.addProduct(badCart, bad, 1);
+
+		failingProductId = bad.getId();
+		failArmed.set(true);
+		store.flushDirtyCarts();
+
+		assertEquals(Map.of(good.getId(), 2), storedQuantities(goodCart));
+		assertTrue(storedQuantities(badCart).isEmpty());
+
+		// The failed cart stayed dirty and is written once its lookup works again
+		failArmed.set(false);
+		store.flushDirtyCarts();
+		assertEquals(Map.of(bad.getId(), 1), storedQuantities(badCart));
+	}
+
+	private MemoryCartStore newStore(long idleSeconds) {
+		return new MemoryCartStore(cartRepository, productRepository, productService, transactionManager,
+				50, idleSeconds);
+	}
+
+	private static boolean inWriteTransaction() {
+		return TransactionSynchronizationManager.isActualTransactionActive()
+				&& !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+	}
+
+	private Product createProduct(String name) {
+		Product product = new Product();
+		product.setName(name);
+		product.setPrice(10);
+		return productRepository.save(product);
+	}
+
+	private int createCart(String username) {
+		User user = userRepository.save(new User(username, username + "@example.com", "secret", Role.ROLE_USER, true));
+		Cart cart = new Cart();
+		cart.setUser(user);
+		return cartRepository.save(cart).getId();
+	}
+
+	// What the DB holds for the cart: product id -> quantity
+	private Map<Integer, Integer> storedQuantities(int cartId) {
+		return transaction.execute(status -> {
+			Map<Integer, Integer> quantities = new HashMap<>();
+			for (CartItem item : cartRepository.findWithItemsById(cartId).orElseThrow().getItems()) {
+				quantities.put(item.getProduct().getId(), item.getQuantity());
+			}
+			return quantities;
+		});
+	}
+}
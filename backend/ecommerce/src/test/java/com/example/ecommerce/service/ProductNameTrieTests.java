@@ -0,0 +1,146 @@
+package com.example.ecommerce.service;
+
+import com.example.ecommerce.dto.ProductSuggestionDTO;
+import com.example.ecommerce.entity.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Prefix lookup, edge splitting and the cached top-k rankings of the type-ahead trie, without Spring
+class ProductNameTrieTests {
+
+	private ProductNameTrie trie;
+
+	@BeforeEach
+	void setUp() {
+		trie = new ProductNameTrie();
+	}
+
+	@Test
+	void matchesTheStartOfAnyWord() {
+		trie.index(product(1, "Red Running Shoe"));
+
+		assertEquals(List.of(1), ids("red"));
+		assertEquals(List.of(1), ids("run"));
+		assertEquals(List.of(1), ids("SHOE"));
+		assertEquals(List.of(1), ids("running sh"));
+		assertTrue(ids("unning").isEmpty());
+		assertTrue(ids("").isEmpty());
+	}
+
+	@Test
+	void splitEdgesKeepBothBranches() {
+		trie.index(product(1, "Lamp"));
+		trie.index(product(2, "Lantern"));
+		trie.index(product(3, "La"));
+
+		assertEquals(List.of(3, 1, 2), ids("la"));
+		assertEquals(List.of(1), ids("lam"));
+		assertEquals(List.of(2), ids("lant"));
+		assertTrue(ids("lamps").isEmpty());
+	}
+
+	@Test
+	void ranksByPopularityThenName() {
+		trie.index(product(1, "Apple Juice"));
+		trie.index(product(2, "Apple Pie"));
+		trie.index(product(3, "Apricot Jam"));
+		trie.setPopularity(Map.of(2, 5L));
+
+		assertEquals(List.of(2, 1, 3), ids("ap"));
+		assertEquals(5, trie.suggest("apple pie", 10).get(0).getOrderCount());
+	}
+
+	@Test
+	void popularityChangeRefreshesCachedRankings() {
+		trie.index(product(1, "Apple Juice"));
+		trie.index(product(2, "Apple Pie"));
+		trie.index(product(3, "Apricot Jam"));
+		trie.setPopularity(Map.of(2, 5L));
+		trie.warmUp();
+		assertEquals(List.of(2, 1, 3), ids("ap"));
+		assertEquals(List.of(2, 1), ids("apple"));
+
+		trie.incrementPopularity(3, 10);
+		trie.incrementPopularity(1, 6);
+
+		assertEquals(List.of(3, 1, 2), ids("ap"));
+		assertEquals(List.of(3, 1, 2), ids("a"));
+		assertEquals(List.of(1, 2), ids("apple"));
+		assertEquals(List.of(3), ids("jam"));
+	}
+
+	@Test
+	void keepsTheTopSuggestionsAcrossBranches() {
+		for (int id = 1; id <= 15; id++) {
+			trie.index(product(id, "Item " + (char) ('a' + id)));
+		}
+		Map<Integer, Long> counts = new HashMap<>();
+		for (int id = 1; id <= 15; id++) {
+			counts.put(id, (long) id);
+		}
+		trie.setPopularity(counts);
+		trie.warmUp();
+
+		assertEquals(List.of(15, 14, 13, 12, 11, 10, 9, 8, 7, 6), ids("item"));
+		assertEquals(List.of(15, 14, 13), ids("item", 3));
+
+		trie.incrementPopularity(1, 100);
+
+		assertEquals(List.of(1, 15, 14, 13, 12, 11, 10, 9, 8, 7), ids("item"));
+	}
+
+	@Test
+	void nameUnderSeveralWordStartsIsSuggestedOnce() {
+		trie.index(product(1, "Tea Tea Pot"));
+		trie.index(product(2, "Green Tea"));
+
+		assertEquals(List.of(2, 1), ids("tea"));
+	}
+
+	@Test
+	void renameAndRemoveDropOldKeys() {
+		trie.index(product(1, "Desk Lamp"));
+		trie.index(product(2, "Desk Fan"));
+		trie.warmUp();
+
+		trie.index(product(1, "Floor Lamp"));
+
+		assertEquals(List.of(2), ids("desk"));
+		assertEquals(List.of(1), ids("floor"));
+		assertEquals(List.of(1), ids("lamp"));
+
+		trie.remove(1);
+
+		assertTrue(ids("lamp").isEmpty());
+		assertTrue(ids("floor").isEmpty());
+		assertEquals(List.of(2), ids("d"));
+
+		// The emptied branch is reused
+		trie.index(product(3, "Floor Mat"));
+		assertEquals(List.of(3), ids("floor"));
+	}
+
+	private List<Integer> ids(String prefix) {
+		return ids(prefix, ProductNameTrie.MAX_SUGGESTIONS);
+	}
+
+	private List<Integer> ids(String prefix, int limit) {
+		return trie.suggest(prefix, limit).stream()
+				.map(ProductSuggestionDTO::getProductId)
+				.collect(Collectors.toList());
+	}
+
+	private static Product product(int id, String name) {
+		Product product = new Product(name, null, 10);
+		product.setId(id);
+		return product;
+	}
+}
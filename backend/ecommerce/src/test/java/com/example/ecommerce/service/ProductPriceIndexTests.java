@@ -0,0 +1,109 @@
+package com.example.ecommerce.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Keyset paging over the (price, id) index, ties and updates included, without Spring
+class ProductPriceIndexTests {
+
+	private ProductPriceIndex index;
+
+	// Sorted: (5, 2) (5, 6) (10, 1) (10, 3) (10, 4) (20, 5)
+	@BeforeEach
+	void setUp() {
+		index = new ProductPriceIndex();
+		index.load(new int[] { 1, 2, 3, 4, 5, 6 }, new double[] { 10, 5, 10, 10, 20, 5 });
+	}
+
+	@Test
+	void ascendingPagesBreakPriceTiesById() {
+		ProductPriceIndex.Slice first = index.page(null, null, null, null, false, 2);
+		assertArrayEquals(new int[] { 2, 6 }, first.getIds());
+		assertArrayEquals(new double[] { 5, 5 }, first.getPrices());
+		assertTrue(first.hasMore());
+
+		// The cursor sits inside a run of equal prices
+		ProductPriceIndex.Slice second = index.page(null, null, 5.0, 6, false, 2);
+		assertArrayEquals(new int[] { 1, 3 }, second.getIds());
+		assertTrue(second.hasMore());
+
+		ProductPriceIndex.Slice third = index.page(null, null, 10.0, 3, false, 2);
+		assertArrayEquals(new int[] { 4, 5 }, third.getIds());
+		assertFalse(third.hasMore());
+	}
+
+	@Test
+	void descendingPagesReverseTheOrder() {
+		ProductPriceIndex.Slice first = index.page(null, null, null, null, true, 2);
+		assertArrayEquals(new int[] { 5, 4 }, first.getIds());
+		assertTrue(first.hasMore());
+
+		ProductPriceIndex.Slice second = index.page(null, null, 10.0, 4, true, 2);
+		assertArrayEquals(new int[] { 3, 1 }, second.getIds());
+		assertTrue(second.hasMore());
+
+		ProductPriceIndex.Slice third = index.page(null, null, 10.0, 1, true, 2);
+		assertArrayEquals(new int[] { 6, 2 }, third.getIds());
+		assertFalse(third.hasMore());
+	}
+
+	@Test
+	void priceBoundsAreInclusive() {
+		assertArrayEquals(new int[] { 2, 6, 1, 3, 4 }, index.page(5.0, 10.0, null, null, false, 10).getIds());
+		assertArrayEquals(new int[] { 1, 3, 4 }, index.page(10.0, 10.0, null, null, false, 10).getIds());
+		assertArrayEquals(new int[] { 5 }, index.page(11.0, null, null, null, false, 10).getIds());
+		assertArrayEquals(new int[] { 2, 6 }, index.page(null, 9.99, null, null, false, 10).getIds());
+		assertArrayEquals(new int[0], index.page(6.0, 9.0, null, null, false, 10).getIds());
+	}
+
+	@Test
+	void boundsAndCursorCombine() {
+		ProductPriceIndex.Slice ascending = index.page(5.0, 10.0, 10.0, 1, false, 10);
+		assertArrayEquals(new int[] { 3, 4 }, ascending.getIds());
+		assertFalse(ascending.hasMore());
+
+		ProductPriceIndex.Slice descending = index.page(5.0, 10.0, 10.0, 3, true, 2);
+		assertArrayEquals(new int[] { 1, 6 }, descending.getIds());
+		assertTrue(descending.hasMore());
+
+		// A full last page inside the band has nothing after it
+		ProductPriceIndex.Slice last = index.page(10.0, 10.0, null, null, false, 3);
+		assertArrayEquals(new int[] { 1, 3, 4 }, last.getIds());
+		assertFalse(last.hasMore());
+	}
+
+	@Test
+	void putMovesAndInsertsInOrder() {
+		index.put(1, 25.0);
+		index.put(7, 10.0);
+		// Same price again is a no-op
+		index.put(3, 10.0);
+
+		assertArrayEquals(new int[] { 2, 6, 3, 4, 7, 5, 1 }, index.page(null, null, null, null, false, 10).getIds());
+		assertArrayEquals(new double[] { 5, 5, 10, 10, 10, 20, 25 },
+				index.page(null, null, null, null, false, 10).getPrices());
+		assertArrayEquals(new int[] { 1, 5, 7, 4, 3, 6, 2 }, index.page(null, null, null, null, true, 10).getIds());
+	}
+
+	@Test
+	void cursorOnARemovedProductStillResumesInPlace() {
+		index.remove(3);
+		index.remove(3);
+
+		assertArrayEquals(new int[] { 4, 5 }, index.page(null, null, 10.0, 3, false, 10).getIds());
+		assertArrayEquals(new int[] { 1, 6, 2 }, index.page(null, null, 10.0, 3, true, 10).getIds());
+	}
+
+	@Test
+	void putAllMergesWithExistingEntries() {
+		index.putAll(new int[] { 2, 8 }, new double[] { 15, 1 });
+
+		assertArrayEquals(new int[] { 8, 6, 1, 3, 4, 2, 5 }, index.page(null, null, null, null, false, 10).getIds());
+		index.remove(8);
+		assertArrayEquals(new int[] { 6, 1 }, index.page(null, null, null, null, false, 2).getIds());
+	}
+}
@@ -0,0 +1,139 @@
+package com.example.ecommerce.service;
+
+import com.example.ecommerce.entity.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Ranking and bookkeeping of the in-memory search index, without Spring
+class ProductSearchIndexTests {
+
+	private ProductSearchIndex index;
+
+	@BeforeEach
+	void setUp() {
+		index = new ProductSearchIndex();
+	}
+
+	@Test
+	void nameMatchOutranksDescriptionMatch() {
+		index.index(product(1, "Sock", "goes with any shoe"));
+		index.index(product(2, "Trail Shoe", "light"));
+
+		assertEquals(List.of(2, 1), index.search("shoe", 10));
+	}
+
+	@Test
+	void rarerTermWeighsMore() {
+		index.index(product(1, "Canvas Bag", null));
+		index.index(product(2, "Leather Bag", null));
+		index.index(product(3, "Leather Belt", null));
+		index.index(product(4, "Leather Wallet", null));
+
+		List<Integer> results = index.search("leather canvas", 10);
+
+		assertEquals(4, results.size());
+		assertEquals(1, (int) results.get(0));
+	}
+
+	@Test
+	void documentMatchingMoreTermsRanksFirst() {
+		index.index(product(1, "Red Mug", null));
+		index.index(product(2, "Red Running Shoe", null));
+		index.index(product(3, "Blue Running Shoe", null));
+
+		assertEquals(2, (int) index.search("red shoe", 10).get(0));
+	}
+
+	@Test
+	void exactTermOutranksPrefixExpansion() {
+		index.index(product(1, "Keyboard", null));
+		index.index(product(2, "Key Ring", null));
+
+		assertEquals(List.of(2, 1), index.search("key", 10));
+		assertEquals(List.of(1), index.search("keyb", 10));
+	}
+
+	@Test
+	void singleCharacterIsNotExpanded() {
+		index.index(product(1, "Keyboard", null));
+
+		assertTrue(index.search("k", 10).isEmpty());
+	}
+
+	@Test
+	void limitKeepsBestMatches() {
+		index.index(product(1, "Lamp", "lamp lamp"));
+		index.index(product(2, "Desk", "a lamp"));
+		index.index(product(3, "Lamp Shade", null));
+
+		assertEquals(List.of(1), index.search("lamp", 1));
+		assertEquals(3, index.search("lamp", 10).size());
+	}
+
+	@Test
+	void removedProductIsNotReturned() {
+		index.index(product(1, "Desk Lamp", null));
+		index.index(product(2, "Floor Lamp", null));
+
+		index.remove(1);
+
+		assertEquals(List.of(2), index.search("lamp", 10));
+		assertTrue(index.search("desk", 10).isEmpty());
+		assertEquals(1, index.size());
+	}
+
+	@Test
+	void reusedOrdinalCarriesNoStaleTerms() {
+		index.index(product(1, "Desk Lamp", null));
+		index.index(product(2, "Floor Lamp", null));
+		index.remove(1);
+
+		// Takes the ordinal product 1 freed
+		index.index(product(3, "Table Lamp", null));
+
+		List<Integer> results = index.search("lamp", 10);
+		assertEquals(2, results.size());
+		assertEquals(Set.of(2, 3), new HashSet<>(results));
+		assertTrue(index.search("desk", 10).isEmpty());
+		assertEquals(List.of(3), index.search("table", 10));
+		assertEquals(2, index.size());
+	}
+
+	@Test
+	void reindexReplacesOldTerms() {
+		index.index(product(1, "Desk Lamp", "brass"));
+		index.index(product(2, "Floor Lamp", null));
+
+		index.index(product(1, "Desk Light", "steel"));
+
+		assertEquals(List.of(2), index.search("lamp", 10));
+		assertEquals(List.of(1), index.search("light", 10));
+		assertTrue(index.search("brass", 10).isEmpty());
+		assertEquals(List.of(1), index.search("steel", 10));
+		assertEquals(2, index.size());
+	}
+
+	@Test
+	void emptyQueryOrIndexFindsNothing() {
+		assertTrue(index.search("lamp", 10).isEmpty());
+
+		index.index(product(1, "Desk Lamp", null));
+
+		assertTrue(index.search("  ", 10).isEmpty());
+		assertTrue(index.search("lamp", 0).isEmpty());
+		assertTrue(index.search("sofa", 10).isEmpty());
+	}
+
+	private static Product product(int id, String name, String description) {
+		Product product = new Product(name, description, 10);
+		product.setId(id);
+		return product;
+	}
+}
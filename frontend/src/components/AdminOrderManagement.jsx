@@ -15,6 +15,16 @@ const AdminOrderManagement = () => {
   const [selectedStatus, setSelectedStatus] = useState("ALL");
   const [orderStats, setOrderStats] = useState(null);
   const [updatingOrderId, setUpdatingOrderId] = useState(null);
+  const [nextCursor, setNextCursor] = useState(null);
+  const [loadingMore, setLoadingMore] = useState(false);
+  const [filters, setFilters] = useState({
+    from: "",
+    to: "",
+    userId: "",
+    minTotal: "",
+    maxTotal: "",
+  });
+  const [appliedFilters, setAppliedFilters] = useState(filters);
   const { user, token } = useAuth();
 
   const ORDER_STATUSES = [
@@ -31,20 +41,29 @@ const AdminOrderManagement = () => {
       fetchOrders();
       fetchOrderStats();
     }
-  }, [user, token, selectedStatus]);
+  }, [user, token, selectedStatus, appliedFilters]);
+
+  // Orders come a page at a time, newest first; the cursor continues where the last page ended
+  const buildOrderParams = (cursor) => {
+    const params = { size: 20 };
+    if (selectedStatus !== "ALL") params.status = selectedStatus;
+    Object.entries(appliedFilters).forEach(([key, value]) => {
+      if (value !== "") params[key] = value;
+    });
+    if (cursor) params.cursor = cursor;
+    return params;
+  };
 
   const fetchOrders = async () => {
     try {
       setLoading(true);
       setError("");
 
-      let url = "/api/admin/orders";
-      if (selectedStatus !== "ALL") {
-        url = `/api/admin/orders/status/${selectedStatus}`;
-      }
-
-      const response = await api.get(url);
-      setOrders(response.data);
+      const response = await api.get("/api/admin/orders", {
+        params: buildOrderParams(null),
+      });
+      setOrders(response.data.items);
+      setNextCursor(response.data.nextCursor);
     } catch (err) {
       setError(
         `Failed to load orders: ${err.response?.data?.message || err.message}`
@@ -54,6 +73,42 @@ const AdminOrderManagement = () => {
     }
   };
 
+  const loadMoreOrders = async () => {
+    if (!nextCursor) return;
+    try {
+      setLoadingMore(true);
+      const response = await api.get("/api/admin/orders", {
+        params: buildOrderParams(nextCursor),
+      });
+      setOrders((prev) => [...prev, ...response.data.items]);
+      setNextCursor(response.data.nextCursor);
+    } catch (err) {
+      showError(
+        `Failed to load more orders: ${
+          err.response?.data?.message || err.message
+        }`
+      );
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
+  const handleFilterChange = (e) => {
+    const { name, value } = e.target;
+    setFilters((prev) => ({ ...prev, [name]: value }));
+  };
+
+  const applyFilters = (e) => {
+    e.preventDefault();
+    setAppliedFilters(filters);
+  };
+
+  const clearFilters = () => {
+    const empty = { from: "", to: "", userId: "", minTotal: "", maxTotal: "" };
+    setFilters(empty);
+    setAppliedFilters(empty);
+  };
+
   const fetchOrderStats = async () => {
     try {
       const response = await api.get("/api/admin/orders/stats");
@@ -216,6 +271,63 @@ const AdminOrderManagement = () => {
         ))}
       </div>
 
+      <form className="order-filters" onSubmit={applyFilters}>
+        <label>
+          From
+          <input
+            type="date"
+            name="from"
+            value={filters.from}
+            onChange={handleFilterChange}
+          />
+        </label>
+        <label>
+          To
+          <input
+            type="date"
+            name="to"
+            value={filters.to}
+            onChange={handleFilterChange}
+          />
+        </label>
+        <label>
+          User ID
+          <input
+            type="number"
+            name="userId"
+            min="1"
+            value={filters.userId}
+            onChange={handleFilterChange}
+          />
+        </label>
+        <label>
+          Min total
+          <input
+            type="number"
+            name="minTotal"
+            min="0"
+            step="0.01"
+            value={filters.minTotal}
+            onChange={handleFilterChange}
+          />
+        </label>
+        <label>
+          Max total
+          <input
+            type="number"
+            name="maxTotal"
+            min="0"
+            step="0.01"
+            value={filters.maxTotal}
+            onChange={handleFilterChange}
+          />
+        </label>
+        <button type="submit">Apply</button>
+        <button type="button" onClick={clearFilters}>
+          Clear
+        </button>
+      </form>
+
       {error && <div className="error-message">{error}</div>}
 
       {orders.length === 0 ? (
@@ -312,6 +424,13 @@ const AdminOrderManagement = () => {
               ))}
             </tbody>
           </table>
+          {nextCursor && (
+            <div className="load-more">
+              <button onClick={loadMoreOrders} disabled={loadingMore}>
+                {loadingMore ? "Loading..." : "Load more orders"}
+              </button>
+            </div>
+          )}
         </div>
       )}
     </div>
@@ -54,27 +54,32 @@ export const CartProvider = ({ children }) => {
     if (!cartIdToUse) return;
 
     try {
-      const response = await api.get(`/api/cart/${cartIdToUse}/items`);
-      const totalItems = response.data.reduce(
-        (sum, item) => sum + item.quantity,
-        0
-      );
-      setCartItemCount(totalItems);
+      // Summary is a single-row read; no item details needed for the badge
+      const response = await api.get(`/api/cart/${cartIdToUse}/summary`);
+      setCartItemCount(response.data.itemCount);
     } catch (error) {
       console.error("Error updating cart item count:", error);
     }
   };
 
-  const addToCart = async (productId, quantity = 1) => {
+  // Apply add / remove / set-quantity operations in one request; returns the updated cart
+  const applyCartOperations = async (operations) => {
     if (!cartId) {
       throw new Error("Cart not initialized");
     }
 
+    const response = await api.post(`/api/cart/${cartId}/batch`, operations);
+    setCartItemCount(
+      response.data.items.reduce((sum, item) => sum + item.quantity, 0)
+    );
+    return response.data;
+  };
+
+  const addToCart = async (productId, quantity = 1) => {
     try {
-      await api.post(
-        `/api/cart/${cartId}/add/${productId}?quantity=${quantity}`
-      );
-      await updateCartItemCount();
+      return await applyCartOperations([
+        { type: "ADD", productId, quantity },
+      ]);
     } catch (error) {
       console.error("Error adding to cart:", error);
       throw error;
@@ -82,13 +87,8 @@ export const CartProvider = ({ children }) => {
   };
 
   const removeFromCart = async (productId) => {
-    if (!cartId) {
-      throw new Error("Cart not initialized");
-    }
-
     try {
-      await api.delete(`/api/cart/${cartId}/remove/${productId}`);
-      await updateCartItemCount();
+      return await applyCartOperations([{ type: "REMOVE", productId }]);
     } catch (error) {
       console.error("Error removing from cart:", error);
       throw error;
@@ -105,6 +105,7 @@ export const CartProvider = ({ children }) => {
     cartItemCount,
     addToCart,
     removeFromCart,
+    applyCartOperations,
     clearCart,
     updateCartItemCount,
   };
@@ -17,6 +17,7 @@ const AdminDashboard = () => {
   const [showAddForm, setShowAddForm] = useState(false);
   const [editingProduct, setEditingProduct] = useState(null);
   const [dashboardStats, setDashboardStats] = useState(null);
+  const [categories, setCategories] = useState([]);
 
   const { user } = useAuth();
 
@@ -24,6 +25,8 @@ const AdminDashboard = () => {
     name: "",
     description: "",
     price: "",
+    stock: "",
+    categoryId: "",
   });
   const [imageFile, setImageFile] = useState(null);
 
@@ -31,6 +34,7 @@ const AdminDashboard = () => {
     if (user && user.role === "ROLE_ADMIN") {
       if (activeTab === "products") {
         fetchProducts();
+        fetchCategories();
       } else if (activeTab === "overview") {
         fetchDashboardStats();
       }
@@ -40,7 +44,7 @@ const AdminDashboard = () => {
   const fetchProducts = async () => {
     try {
       setLoading(true);
-      const response = await api.get("/api/products");
+      const response = await api.get("/api/products?unpaged=true");
       setProducts(response.data);
     } catch (err) {
       setError("Failed to load products");
@@ -50,20 +54,38 @@ const AdminDashboard = () => {
     }
   };
 
+  // Flatten the category tree into indented options for the product form
+  const fetchCategories = async () => {
+    try {
+      const response = await api.get("/api/categories");
+      const options = [];
+      const walk = (nodes, depth) =>
+        nodes.forEach((node) => {
+          options.push({ id: node.id, label: `${"— ".repeat(depth)}${node.name}` });
+          walk(node.children, depth + 1);
+        });
+      walk(response.data, 0);
+      setCategories(options);
+    } catch (err) {
+      console.error("Error fetching categories:", err);
+    }
+  };
+
   const fetchDashboardStats = async () => {
     try {
       setLoading(true);
       // Fetch order stats and product count
       const [orderStatsResponse, productsResponse] = await Promise.all([
         api.get("/api/admin/orders/stats"),
-        api.get("/api/products"),
+        api.get("/api/products?unpaged=true"),
       ]);
 
       setDashboardStats({
         ...orderStatsResponse.data,
         totalProducts: productsResponse.data.length,
-        lowStockProducts: productsResponse.data.filter((p) => p.stock < 10)
-          .length, // assuming you have stock field
+        lowStockProducts: productsResponse.data.filter(
+          (p) => p.stock !== null && p.stock < 10
+        ).length,
       });
     } catch (err) {
       setError("Failed to load dashboard statistics");
@@ -89,7 +111,15 @@ const AdminDashboard = () => {
     e.preventDefault();
 
     const productData = new FormData();
-    productData.append("product", JSON.stringify(formData));
+    productData.append(
+      "product",
+      JSON.stringify({
+        ...formData,
+        categoryId: formData.categoryId === "" ? null : Number(formData.categoryId),
+        // Empty stock means "not tracked"
+        stock: formData.stock === "" ? null : Number(formData.stock),
+      })
+    );
 
     if (imageFile) {
       productData.append("image", imageFile);
@@ -102,6 +132,25 @@ const AdminDashboard = () => {
             "Content-Type": "multipart/form-data",
           },
         });
+        // Stock goes through its own endpoint, which only applies if nobody has bought since the form was loaded
+        const newStock = formData.stock === "" ? null : Number(formData.stock);
+        const loadedStock = editingProduct.stock ?? null;
+        if (newStock !== loadedStock) {
+          try {
+            await api.put(`/api/products/${editingProduct.id}/stock`, {
+              stock: newStock,
+              expectedStock: loadedStock,
+            });
+          } catch (err) {
+            if (err.response?.status === 409) {
+              await fetchProducts();
+              showError("Stock changed while you were editing. Details were saved; reopen the product to set stock.");
+              resetForm();
+              return;
+            }
+            throw err;
+          }
+        }
         setEditingProduct(null);
       } else {
         await api.post("/api/products", productData, {
@@ -127,6 +176,8 @@ const AdminDashboard = () => {
       name: product.name,
       description: product.description,
       price: product.price,
+      stock: product.stock ?? "",
+      categoryId: product.categoryId ?? "",
     });
     setShowAddForm(true);
   };
@@ -148,6 +199,8 @@ const AdminDashboard = () => {
       name: "",
       description: "",
       price: "",
+      stock: "",
+      categoryId: "",
     });
     setImageFile(null);
     setShowAddForm(false);
@@ -346,6 +399,34 @@ const AdminDashboard = () => {
                   />
                 </div>
 
+                <div className="form-group">
+                  <label>Stock (leave empty to not track)</label>
+                  <input
+                    type="number"
+                    name="stock"
+                    value={formData.stock}
+                    onChange={handleInputChange}
+                    step="1"
+                    min="0"
+                  />
+                </div>
+
+                <div className="form-group">
+                  <label>Category</label>
+                  <select
+                    name="categoryId"
+                    value={formData.categoryId}
+                    onChange={handleInputChange}
+                  >
+                    <option value="">Uncategorized</option>
+                    {categories.map((category) => (
+                      <option key={category.id} value={category.id}>
+                        {category.label}
+                      </option>
+                    ))}
+                  </select>
+                </div>
+
                 <div className="form-group">
                   <label>Product Image</label>
                   <input
@@ -395,7 +476,7 @@ const AdminDashboard = () => {
                           <td>
                             {product.imageUrl ? (
                               <img
-                                src={product.imageUrl}
+                                src={product.thumbnailUrl || product.imageUrl}
                                 alt={product.name}
                                 className="product-thumbnail"
                               />
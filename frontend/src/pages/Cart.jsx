@@ -17,7 +17,7 @@ const Cart = () => {
   const [selectedItems, setSelectedItems] = useState([]);
   const [checkoutLoading, setCheckoutLoading] = useState(false);
   const { user } = useAuth();
-  const { cartId, updateCartItemCount } = useCart();
+  const { cartId, removeFromCart } = useCart();
   const navigate = useNavigate();
 
   useEffect(() => {
@@ -41,9 +41,11 @@ const Cart = () => {
 
   const handleRemoveItem = async (productId) => {
     try {
-      await api.delete(`/api/cart/${cartId}/remove/${productId}`);
-      await fetchCartItems();
-      await updateCartItemCount();
+      const cart = await removeFromCart(productId);
+      setCartItems(cart.items);
+      setSelectedItems((prev) =>
+        prev.filter((id) => cart.items.some((item) => item.id === id))
+      );
       showSuccess("Item removed from cart");
     } catch (err) {
       console.error("Remove item error:", err);
@@ -13,6 +13,8 @@ const Orders = () => {
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState("");
   const [selectedStatus, setSelectedStatus] = useState("ALL");
+  const [nextCursor, setNextCursor] = useState(null);
+  const [loadingMore, setLoadingMore] = useState(false);
   const { user } = useAuth();
 
   useEffect(() => {
@@ -26,16 +28,12 @@ const Orders = () => {
       setLoading(true);
       setError("");
 
-      const response = await api.get(`/api/orders/user/${user.id}`);
-
-      let filteredOrders = response.data;
-      if (selectedStatus !== "ALL") {
-        filteredOrders = response.data.filter(
-          (order) => order.status === selectedStatus
-        );
-      }
-
-      setOrders(filteredOrders);
+      // Filtered and paged by the server, newest first
+      const response = await api.get(`/api/orders/user/${user.id}`, {
+        params: orderParams(null),
+      });
+      setOrders(response.data.items);
+      setNextCursor(response.data.nextCursor);
     } catch (err) {
       console.error("Error fetching orders:", err);
       setError("Failed to load orders. Please try again.");
@@ -44,6 +42,30 @@ const Orders = () => {
     }
   };
 
+  const orderParams = (cursor) => {
+    const params = { size: 10 };
+    if (selectedStatus !== "ALL") params.status = selectedStatus;
+    if (cursor) params.cursor = cursor;
+    return params;
+  };
+
+  const loadMoreOrders = async () => {
+    if (!nextCursor) return;
+    try {
+      setLoadingMore(true);
+      const response = await api.get(`/api/orders/user/${user.id}`, {
+        params: orderParams(nextCursor),
+      });
+      setOrders((prev) => [...prev, ...response.data.items]);
+      setNextCursor(response.data.nextCursor);
+    } catch (err) {
+      console.error("Error fetching more orders:", err);
+      showError("Failed to load more orders");
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
   const handleStatusFilter = (status) => {
     setSelectedStatus(status);
   };
@@ -295,6 +317,13 @@ const Orders = () => {
               )}
             </div>
           ))}
+          {nextCursor && (
+            <div className="load-more">
+              <button onClick={loadMoreOrders} disabled={loadingMore}>
+                {loadingMore ? "Loading..." : "Load more orders"}
+              </button>
+            </div>
+          )}
         </div>
       )}
     </div>
@@ -23,7 +23,7 @@ const Products = () => {
 
   const fetchProducts = async () => {
     try {
-      const response = await api.get("api/products");
+      const response = await api.get("api/products?unpaged=true");
       setProducts(response.data);
     } catch (err) {
       setError("Failed to load products");
@@ -67,7 +67,7 @@ const Products = () => {
             <div className="product-image-container">
               {product.imageUrl && !imageErrors.has(product.id) ? (
                 <img
-                  src={product.imageUrl}
+                  src={product.thumbnailUrl || product.imageUrl}
                   alt={product.name}
                   className="product-image"
                   onError={() => handleImageError(product.id)}
@@ -29,21 +29,20 @@ const UserDashboard = () => {
       setLoading(true);
       setError("");
 
-      const ordersResponse = await api.get(`/api/orders/user/${user.id}`);
-      setUserOrders(ordersResponse.data);
-
-      // Calculate user stats from orders
-      const orders = ordersResponse.data;
+      // Totals are aggregated by the server; only the latest few orders are fetched
+      const [summaryResponse, ordersResponse] = await Promise.all([
+        api.get(`/api/orders/user/${user.id}/summary`),
+        api.get(`/api/orders/user/${user.id}`, { params: { size: 5 } }),
+      ]);
+      const orders = ordersResponse.data.items;
+      setUserOrders(orders);
+
+      const summary = summaryResponse.data;
       const stats = {
-        totalOrders: orders.length,
-        totalSpent: orders.reduce(
-          (sum, order) => sum + (order.totalPrice || 0),
-          0
-        ),
-        pendingOrders: orders.filter((order) => order.status === "PENDING")
-          .length,
-        completedOrders: orders.filter((order) => order.status === "DELIVERED")
-          .length,
+        totalOrders: summary.totalOrders,
+        totalSpent: summary.totalSpent,
+        pendingOrders: summary.ordersByStatus.PENDING || 0,
+        completedOrders: summary.ordersByStatus.DELIVERED || 0,
         recentOrder: orders.length > 0 ? orders[0] : null,
       };
       setUserStats(stats);